@@ -0,0 +1,82 @@
+package com.github.alienideology.javason;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A pool of the buffers of {@link JsonTokenizer}, and the default symbol tables of {@link JsonParser}.
+ * The pool has a fixed amount of stripes, and a thread uses the stripe of its identity hash code,
+ * so the pool does not grow with the amount of threads, such as virtual threads, unlike a thread local.
+ * Each stripe keeps at most one buffer of each kind, and buffers larger than {@link #MAX_POOLED_SIZE} are not kept.
+ * A symbol table which is full, while most keys are not found, is replaced by an empty one.
+ *
+ * @author AlienIdeology
+ */
+final class BufferRecycler {
+
+	final static int MAX_POOLED_SIZE = 64*1024; // In chars or bytes
+
+	private final static int STRIPES = Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors() * 2 - 1)) * 2;
+	private final static AtomicReferenceArray<char[]> CHARS = new AtomicReferenceArray<>(STRIPES);
+	private final static AtomicReferenceArray<byte[]> BYTES = new AtomicReferenceArray<>(STRIPES);
+	private final static AtomicReferenceArray<SymbolTable> SYMBOLS = new AtomicReferenceArray<>(STRIPES);
+
+	private BufferRecycler() {}
+
+	// Take the pooled char buffer if it is large enough, otherwise allocate one
+	static char[] chars(int minSize) {
+		final int stripe = stripe();
+		final char[] pooled = CHARS.get(stripe);
+		if (pooled != null && pooled.length >= minSize && CHARS.compareAndSet(stripe, pooled, null)) {
+			return pooled;
+		}
+		return new char[minSize];
+	}
+
+	// Take the pooled byte buffer if it is large enough, otherwise allocate one
+	static byte[] bytes(int minSize) {
+		final int stripe = stripe();
+		final byte[] pooled = BYTES.get(stripe);
+		if (pooled != null && pooled.length >= minSize && BYTES.compareAndSet(stripe, pooled, null)) {
+			return pooled;
+		}
+		return new byte[minSize];
+	}
+
+	// Keep the buffer if the stripe has none, or has a smaller one
+	static void release(char[] buffer) {
+		if (buffer.length > MAX_POOLED_SIZE) return;
+		final int stripe = stripe();
+		final char[] pooled = CHARS.get(stripe);
+		if (pooled == null || pooled.length < buffer.length) {
+			CHARS.compareAndSet(stripe, pooled, buffer);
+		}
+	}
+
+	// Keep the buffer if the stripe has none, or has a smaller one
+	static void release(byte[] buffer) {
+		if (buffer.length > MAX_POOLED_SIZE) return;
+		final int stripe = stripe();
+		final byte[] pooled = BYTES.get(stripe);
+		if (pooled == null || pooled.length < buffer.length) {
+			BYTES.compareAndSet(stripe, pooled, buffer);
+		}
+	}
+
+	// The symbol table of the stripe, which is shared by the threads of the stripe
+	// A stale table is replaced, so keys which are repeated later are still interned, see SymbolTable#isStale()
+	static SymbolTable symbols() {
+		final int stripe = stripe();
+		final SymbolTable symbols = SYMBOLS.get(stripe);
+		if (symbols != null && !symbols.isStale()) {
+			return symbols;
+		}
+		SYMBOLS.compareAndSet(stripe, symbols, new SymbolTable());
+		return SYMBOLS.get(stripe);
+	}
+
+	private static int stripe() {
+		final int hash = System.identityHashCode(Thread.currentThread());
+		return (hash ^ hash >>> 16) & (STRIPES - 1);
+	}
+
+}
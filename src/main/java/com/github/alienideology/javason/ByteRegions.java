@@ -0,0 +1,88 @@
+package com.github.alienideology.javason;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Random access to bytes which are split into buffers, such as the regions of a memory-mapped file.
+ * The buffers are not modified, so the bytes can be accessed by many threads.
+ *
+ * @author AlienIdeology
+ */
+final class ByteRegions {
+
+	private final ByteBuffer[] regions;
+	private final long[] starts; // Index of each region in the bytes
+	private final long length;
+
+	/**
+	 * Construct by the remaining bytes of the buffers, in order.
+	 *
+	 * @param regions The buffers.
+	 */
+	ByteRegions(ByteBuffer[] regions) {
+		this.regions = regions;
+		this.starts = new long[regions.length];
+		long start = 0;
+		for (int i = 0; i < regions.length; i++) {
+			starts[i] = start;
+			start += regions[i].remaining();
+		}
+		this.length = start;
+	}
+
+	long length() {
+		return length;
+	}
+
+	byte get(long index) {
+		final int region = region(index);
+		return regions[region].get(regions[region].position() + (int) (index - starts[region]));
+	}
+
+	// Index of the first byte in the range, or the end of the range if it is not found
+	long indexOf(byte b, long from, long to) {
+		for (long i = from; i < to; ) {
+			final int region = region(i);
+			final ByteBuffer buffer = regions[region];
+			final int start = buffer.position() + (int) (i - starts[region]); // Positions in the buffer are ints
+			final int end = buffer.position() + (int) (Math.min(to, starts[region] + buffer.remaining()) - starts[region]);
+			for (int p = start; p < end; p++) {
+				if (buffer.get(p) == b) return starts[region] + (p - buffer.position());
+			}
+			i = starts[region] + (end - buffer.position());
+		}
+		return to;
+	}
+
+	// Copy the bytes in the range
+	void get(long index, byte[] dst, int offset, int length) {
+		while (length > 0) {
+			final int region = region(index);
+			final ByteBuffer buffer = regions[region].duplicate();
+			buffer.position(buffer.position() + (int) (index - starts[region]));
+			final int read = Math.min(length, buffer.remaining());
+			buffer.get(dst, offset, read);
+			index += read;
+			offset += read;
+			length -= read;
+		}
+	}
+
+	// Buffers of the bytes from the index, to be read by a tokenizer
+	ByteBuffer[] from(long index) {
+		final int region = region(index);
+		final ByteBuffer[] buffers = new ByteBuffer[regions.length - region];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = regions[region + i].duplicate();
+		}
+		buffers[0].position(buffers[0].position() + (int) (index - starts[region]));
+		return buffers;
+	}
+
+	private int region(long index) {
+		int region = starts.length - 1;
+		while (region > 0 && starts[region] > index) region--;
+		return region;
+	}
+
+}
@@ -0,0 +1,248 @@
+package com.github.alienideology.javason;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The pairs of a {@link JsonObject}, kept in parallel arrays of keys and values in insertion order.
+ * Keys are searched linearly in small objects, which are most json objects, and objects larger than
+ * {@link #HASH_THRESHOLD} also have an open addressing table of the indexes of the keys.
+ * Removing a pair shifts the pairs after it, so it is linear in the size of the object.
+ *
+ * @author AlienIdeology
+ */
+final class CompactMap extends AbstractMap<String, Object> {
+
+	final static int HASH_THRESHOLD = 8;
+
+	private final static String[] NO_KEYS = new String[0];
+	private final static Object[] NO_VALUES = new Object[0];
+
+	private String[] keys = NO_KEYS;
+	private Object[] values = NO_VALUES;
+	private int size;
+	private int[] table; // Nullable, index + 1 of the pairs, or 0 for an empty slot
+	private int modCount;
+	private Set<Entry<String, Object>> entrySet; // Nullable until viewed
+
+	CompactMap() {}
+
+	CompactMap(Map<String, ?> pairs) {
+		keys = new String[pairs.size()];
+		values = new Object[pairs.size()];
+		for (Entry<String, ?> entry : pairs.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	// The key at the index, in insertion order
+	String keyAt(int index) {
+		return keys[index];
+	}
+
+	// The value at the index, in insertion order
+	Object valueAt(int index) {
+		return values[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		final int index = indexOf(key);
+		return index >= 0 ? values[index] : null;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		final int index = indexOf(key);
+		if (index >= 0) {
+			final Object old = values[index];
+			values[index] = value;
+			return old;
+		}
+
+		if (size == keys.length) {
+			final int capacity = Math.max(4, size * 2);
+			keys = Arrays.copyOf(keys, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		keys[size] = key;
+		values[size] = value;
+		size++;
+		modCount++;
+		if (table != null && size * 2 > table.length) {
+			rehash();
+		} else if (table != null) {
+			insert(size - 1);
+		} else if (size > HASH_THRESHOLD) {
+			rehash();
+		}
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		final int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		final Object old = values[index];
+		removeAt(index);
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+		table = null;
+		modCount++;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new AbstractSet<Entry<String, Object>>() {
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					return new PairIterator();
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+
+				@Override
+				public void clear() {
+					CompactMap.this.clear();
+				}
+			};
+		}
+		return entrySet;
+	}
+
+	private int indexOf(Object key) {
+		if (table == null) {
+			for (int i = 0; i < size; i++) {
+				if (Objects.equals(key, keys[i])) return i;
+			}
+			return -1;
+		}
+		final int mask = table.length - 1;
+		for (int slot = hash(key) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			final int index = table[slot] - 1;
+			if (Objects.equals(key, keys[index])) return index;
+		}
+		return -1;
+	}
+
+	private void removeAt(int index) {
+		System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		modCount++;
+		if (table != null) { // The indexes after the pair have changed
+			rehash();
+		}
+	}
+
+	// Build the table for the current pairs, with at most half of the slots used
+	private void rehash() {
+		table = new int[Integer.highestOneBit(Math.max(HASH_THRESHOLD, size) * 2) * 2];
+		for (int i = 0; i < size; i++) {
+			insert(i);
+		}
+	}
+
+	private void insert(int index) {
+		final int mask = table.length - 1;
+		int slot = hash(keys[index]) & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = index + 1;
+	}
+
+	private static int hash(Object key) {
+		final int hash = key == null ? 0 : key.hashCode();
+		return hash ^ hash >>> 16;
+	}
+
+	private final class PairIterator implements Iterator<Entry<String, Object>> {
+
+		private int next;
+		private int last = -1;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			} else if (next >= size) {
+				throw new NoSuchElementException();
+			}
+			last = next++;
+			return new Pair(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			} else if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			removeAt(last);
+			next = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+
+	}
+
+	// Writes the value through to the map
+	private final class Pair extends SimpleEntry<String, Object> {
+
+		private final static long serialVersionUID = 1L;
+
+		private final int index;
+
+		Pair(int index) {
+			super(keys[index], values[index]);
+			this.index = index;
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			values[index] = value;
+			return super.setValue(value);
+		}
+
+	}
+
+}
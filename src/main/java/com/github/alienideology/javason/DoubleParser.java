@@ -0,0 +1,131 @@
+package com.github.alienideology.javason;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a decimal significand and exponent to the nearest double, without allocation.
+ * Uses Clinger's fast path for small exponents, then the Eisel-Lemire algorithm.
+ * Cases which these cannot decide exactly (subnormals, overflows and exact halfway points) return {@link Double#NaN},
+ * so the caller can fall back to {@link Double#parseDouble(String)}.
+ *
+ * @author AlienIdeology
+ */
+final class DoubleParser {
+
+	private final static double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private DoubleParser() {}
+
+	/**
+	 * Get the double closest to {@code significand * 10^exponent}.
+	 *
+	 * @param significand The significand, as an unsigned long.
+	 * @param exponent The decimal exponent.
+	 * @param negative True if the number is negative.
+	 * @return The double, or {@link Double#NaN} if it cannot be decided exactly.
+	 */
+	static double toDouble(long significand, int exponent, boolean negative) {
+		if (significand == 0) {
+			return negative ? -0.0 : 0.0;
+		}
+
+		// Both the significand and the power of ten are exact doubles, so one operation rounds correctly
+		if (exponent >= -22 && exponent <= 22 && significand > 0 && significand <= 1L << 53) {
+			final double value = exponent < 0
+					? (double) significand / POWERS_OF_TEN[-exponent]
+					: (double) significand * POWERS_OF_TEN[exponent];
+			return negative ? -value : value;
+		}
+
+		if (exponent < PowersOfFive.MIN_POWER) { // Less than the smallest subnormal
+			return negative ? -0.0 : 0.0;
+		} else if (exponent > PowersOfFive.MAX_POWER) {
+			return Double.NaN;
+		}
+		return eiselLemire(significand, exponent, negative);
+	}
+
+	private static double eiselLemire(long significand, int exponent, boolean negative) {
+		int leadingZeros = Long.numberOfLeadingZeros(significand);
+		final long normalized = significand << leadingZeros;
+
+		// The top 64 bits of the 128-bit product of the significand and 5^exponent
+		final int index = 2 * (exponent - PowersOfFive.MIN_POWER);
+		final long power = PowersOfFive.TABLE[index];
+		long high = multiplyHigh(normalized, power);
+		long low = normalized * power;
+		if ((high & 0x1FF) == 0x1FF) { // Not enough exact bits, use the lower 64 bits of the power
+			final long secondHigh = multiplyHigh(normalized, PowersOfFive.TABLE[index + 1]);
+			low += secondHigh;
+			if (Long.compareUnsigned(secondHigh, low) > 0) high++;
+			if (low == -1L) return Double.NaN;
+		}
+
+		final int upperBit = (int) (high >>> 63);
+		long mantissa = high >>> (upperBit + 9);
+		leadingZeros += 1 ^ upperBit;
+
+		int binaryExponent = (((152170 + 65536) * exponent) >> 16) + 1024 + 63 - leadingZeros;
+		if (binaryExponent <= 0) { // Subnormal
+			return Double.NaN;
+		}
+		if (Long.compareUnsigned(low, 1) <= 0 && exponent >= -4 && exponent <= 23 && (mantissa & 3) == 1) { // Halfway
+			return Double.NaN;
+		}
+
+		mantissa += mantissa & 1; // Round
+		mantissa >>>= 1;
+		if (mantissa >= 1L << 53) {
+			mantissa = 1L << 52;
+			binaryExponent++;
+		}
+		mantissa &= ~(1L << 52);
+		if (binaryExponent > 2046) { // Infinite
+			return Double.NaN;
+		}
+		return Double.longBitsToDouble(mantissa | (long) binaryExponent << 52 | (negative ? Long.MIN_VALUE : 0));
+	}
+
+	// The high 64 bits of the unsigned 128-bit product
+	private static long multiplyHigh(long x, long y) {
+		final long xLow = x & 0xFFFFFFFFL;
+		final long xHigh = x >>> 32;
+		final long yLow = y & 0xFFFFFFFFL;
+		final long yHigh = y >>> 32;
+		final long highLow = xHigh * yLow;
+		final long cross = ((xLow * yLow) >>> 32) + (highLow & 0xFFFFFFFFL) + xLow * yHigh;
+		return xHigh * yHigh + (highLow >>> 32) + (cross >>> 32);
+	}
+
+	// 5^q truncated to 128 bits with the highest bit set, only loaded when the fast path is not taken
+	private static class PowersOfFive {
+		final static int MIN_POWER = -342;
+		final static int MAX_POWER = 308;
+		final static long[] TABLE = new long[2 * (MAX_POWER - MIN_POWER + 1)]; // High and low 64 bits
+
+		static {
+			final BigInteger five = BigInteger.valueOf(5);
+			for (int q = MIN_POWER; q <= MAX_POWER; q++) {
+				BigInteger value;
+				if (q < 0) { // Reciprocal of 5^-q, rounded up
+					final BigInteger power = five.pow(-q);
+					final int bits = power.bitLength();
+					value = BigInteger.ONE.shiftLeft(q >= -27 ? bits + 127 : 2 * bits + 128).divide(power).add(BigInteger.ONE);
+				} else {
+					value = five.pow(q);
+				}
+				value = value.bitLength() > 128
+						? value.shiftRight(value.bitLength() - 128)
+						: value.shiftLeft(128 - value.bitLength());
+
+				final int index = 2 * (q - MIN_POWER);
+				TABLE[index] = value.shiftRight(64).longValue();
+				TABLE[index + 1] = value.longValue();
+			}
+		}
+	}
+
+}
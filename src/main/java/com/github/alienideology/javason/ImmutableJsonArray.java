@@ -9,11 +9,75 @@ import java.util.function.Consumer;
 /**
  * Immutable, or unmodifiable json array.
  * This extends {@link JsonArray} and throw {@link UnsupportedOperationException}s for methods.
- * 
+ * <p>
+ * A modified version is derived by {@link #withElement(int, Object)},
+ * which shares the unchanged elements with this array, so it takes O(log n) instead of copying the array.
+ * The array can be shared by threads without locking, but the elements are not copied, so nested json objects
+ * and arrays are only immutable if they are immutable themselves, or if this array is frozen by {@link #freeze()}.
+ *
  * @author AlienIdeology
  */
 public class ImmutableJsonArray extends JsonArray {
 
+	private final static ValueList NO_ELEMENTS = new ValueList(); // Never modified, the elements are in the persistent vector
+
+	private final PersistentVector elements;
+
+	/**
+	 * Creates an empty ImmutableJsonArray.
+	 */
+	public ImmutableJsonArray() {
+		this(PersistentVector.EMPTY);
+	}
+
+	/**
+	 * Create an ImmutableJsonArray with the elements of a collection.
+	 *
+	 * @param collection The collection.
+	 * @throws IllegalArgumentException
+	 * 		If an element is a {@link Double} or {@link Float}, and the number is not valid. See {@link Javason#isNumberValid(Number)}.
+	 */
+	public ImmutableJsonArray(Collection<?> collection) throws IllegalArgumentException {
+		this(PersistentVector.of(validate(collection.toArray())));
+	}
+
+	private ImmutableJsonArray(PersistentVector elements) {
+		super(NO_ELEMENTS);
+		this.elements = elements;
+	}
+
+	/**
+	 * Derive an array with the element added or replaced at a given index.
+	 * If the index is larger or equal to the {@link #size()}, then the element will be added.
+	 * If not, the element will be replaced.
+	 *
+	 * @param index The index, between {@code 0} and {@link #size()} - 1.
+	 * @param element The element to add or replace.
+	 * @return The derived array, or this array if the index already has the element.
+	 * @throws IllegalArgumentException
+	 * 		If the element is a {@link Double} or {@link Float}, and the number is not valid. See {@link Javason#isNumberValid(Number)}.
+	 */
+	public ImmutableJsonArray withElement(int index, Object element) throws IllegalArgumentException {
+		if (element instanceof Number) {
+			Javason.validateNumber((Number) element);
+		}
+		final PersistentVector elements = this.elements.with(Math.min(Math.max(index, 0), size()), element);
+		return elements == this.elements ? this : new ImmutableJsonArray(elements);
+	}
+
+	@Override
+	public Object get(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public boolean contains(Object object) {
+		for (Object element : elements) {
+			if (JsonString.equal(object, element)) return true;
+		}
+		return false;
+	}
+
 	@Override
 	public <T> Collection<T> toCollection(Collection<T> t) {
 		return Collections.unmodifiableCollection(super.toCollection(t));
@@ -29,11 +93,66 @@ public class ImmutableJsonArray extends JsonArray {
 		throw new UnsupportedOperationException("The JSON array is immutable!");
 	}
 
+	@Override
+	public JsonArray add(int value) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray add(long value) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray add(double value) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray add(float value) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray addAll(int[] values) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray addAll(long[] values) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray addAll(double[] values) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
 	@Override
 	public JsonArray put(int index, Object object) throws UnsupportedOperationException {
 		throw new UnsupportedOperationException("The JSON array is immutable!");
 	}
 
+	@Override
+	public JsonArray put(int index, int value) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray put(int index, long value) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray put(int index, double value) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
+	@Override
+	public JsonArray put(int index, float value) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException("The JSON array is immutable!");
+	}
+
 	@Override
 	public Object remove(int index) throws UnsupportedOperationException {
 		throw new UnsupportedOperationException("The JSON array is immutable!");
@@ -44,29 +163,53 @@ public class ImmutableJsonArray extends JsonArray {
 		throw new UnsupportedOperationException("The JSON array is immutable!");
 	}
 
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return elements.isEmpty();
+	}
+
 	@Override
 	public JsonArray clear() throws UnsupportedOperationException {
 		throw new UnsupportedOperationException("The JSON array is immutable!");
 	}
-	
+
+	@Override
+	public Object[] getAsArray() {
+		return elements.toArray();
+	}
+
 	@Override
 	public Collection<Object> getAsCollection() {
-		return Collections.unmodifiableCollection(super.getAsCollection());
+		return elements;
 	}
 
 	@Override
 	public void forEach(Consumer<? super Object> arg0) {
-		getAsCollection().forEach(arg0);
+		elements.forEach(arg0);
 	}
 
 	@Override
 	public Iterator<Object> iterator()  {
-		return getAsCollection().iterator();
+		return elements.iterator();
 	}
 
 	@Override
 	public Spliterator<Object> spliterator() {
-		return getAsCollection().spliterator();
+		return elements.spliterator();
+	}
+
+	private static Object[] validate(Object[] elements) {
+		for (Object element : elements) {
+			if (element instanceof Number) {
+				Javason.validateNumber((Number) element);
+			}
+		}
+		return elements;
 	}
-	
+
 }
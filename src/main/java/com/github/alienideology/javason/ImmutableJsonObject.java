@@ -1,17 +1,88 @@
 package com.github.alienideology.javason;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.BiConsumer;
 
 /**
  * Immutable, or unmodifiable json object.
  * This extends {@link JsonObject} and throw {@link UnsupportedOperationException}s for methods.
- * 
+ * <p>
+ * A modified version is derived by {@link #with(String, Object)} and {@link #without(String)},
+ * which share the unchanged pairs with this object, so each takes O(log n) instead of copying the object.
+ * The object can be shared by threads without locking, but the values are not copied, so nested json objects
+ * and arrays are only immutable if they are immutable themselves, or if this object is frozen by {@link #freeze()}.
+ * The pairs are not kept in insertion order.
+ *
  * @author AlienIdeology
  */
 public class ImmutableJsonObject extends JsonObject {
 
+	private final static CompactMap NO_PAIRS = new CompactMap(); // Never modified, the pairs are in the persistent map
+
+	private final PersistentMap pairs;
+
+	/**
+	 * Creates an empty ImmutableJsonObject.
+	 */
+	public ImmutableJsonObject() {
+		this(PersistentMap.EMPTY);
+	}
+
+	/**
+	 * Create an ImmutableJsonObject with the pairs of a map.
+	 *
+	 * @param pairs The map, with keys(String) and values(Object).
+	 * @throws IllegalArgumentException
+	 * 		If a key is null, or if a value is a {@link Double} or {@link Float}, and the number is not valid. See {@link Javason#isNumberValid(Number)}.
+	 */
+	public ImmutableJsonObject(Map<String, Object> pairs) throws IllegalArgumentException {
+		this(of(pairs));
+	}
+
+	private ImmutableJsonObject(PersistentMap pairs) {
+		super(NO_PAIRS);
+		this.pairs = pairs;
+	}
+
+	/**
+	 * Derive an object with the value put or replaced with the given key.
+	 *
+	 * @param key The string key.
+	 * @param value The matching value.
+	 * @return The derived object, or this object if the key already has the value.
+	 * @throws IllegalArgumentException
+	 * 		If the key is null, or if the value is a {@link Double} or {@link Float}, and the number is not valid. See {@link Javason#isNumberValid(Number)}.
+	 */
+	public ImmutableJsonObject with(String key, Object value) throws IllegalArgumentException {
+		if (value instanceof Number) {
+			Javason.validateNumber((Number) value);
+		}
+		final PersistentMap pairs = this.pairs.with(key, value);
+		return pairs == this.pairs ? this : new ImmutableJsonObject(pairs);
+	}
+
+	/**
+	 * Derive an object without the given key.
+	 *
+	 * @param key The string key.
+	 * @return The derived object, or this object if there is no such key.
+	 */
+	public ImmutableJsonObject without(String key) {
+		final PersistentMap pairs = this.pairs.without(key);
+		return pairs == this.pairs ? this : new ImmutableJsonObject(pairs);
+	}
+
+	@Override
+	public Object get(String key) {
+		return pairs.get(key);
+	}
+
+	@Override
+	public boolean contains(String key) {
+		return pairs.containsKey(key);
+	}
+
 	@Override
 	public JsonObject put(String key, Object value) throws UnsupportedOperationException {
 		throw new UnsupportedOperationException("The JSON object is immutable!");
@@ -27,15 +98,40 @@ public class ImmutableJsonObject extends JsonObject {
 		throw new UnsupportedOperationException("The JSON object is immutable!");
 	}
 
+	@Override
+	public int size() {
+		return pairs.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return pairs.isEmpty();
+	}
+
 	@Override
 	public JsonObject clear() throws UnsupportedOperationException {
 		throw new UnsupportedOperationException("The JSON object is immutable!");
 	}
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
-	public HashMap<String, Object> getAsMap() {
-		return (HashMap) Collections.unmodifiableMap(super.getAsMap());
+	public Map<String, Object> getAsMap() {
+		return pairs;
+	}
+
+	@Override
+	void forEachPair(BiConsumer<String, Object> action) {
+		pairs.forEachPair(action);
 	}
-	
+
+	private static PersistentMap of(Map<String, Object> pairs) {
+		PersistentMap map = PersistentMap.EMPTY;
+		for (Entry<String, Object> entry : pairs.entrySet()) {
+			if (entry.getValue() instanceof Number) {
+				Javason.validateNumber((Number) entry.getValue());
+			}
+			map = map.with(entry.getKey(), entry.getValue());
+		}
+		return map;
+	}
+
 }
@@ -1,10 +1,14 @@
 package com.github.alienideology.javason;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
+import com.github.alienideology.javason.exception.JsonException;
+
 /**
  * Central utility class for the Json parser Javason.
  * 
@@ -18,7 +22,12 @@ public class Javason {
 	public final static List<Character> ALLOWED_ESCAPE_CHARACTERS = Arrays.asList('\"', '\\', '/', '\b', '\f', '\n', '\r', '\t');
 	
 	/**
-	 * Get the number from a string.
+	 * Get the number from a string, which must be a json number.
+	 * Integers are parsed as {@link Integer}, {@link Long}, or {@link BigInteger} if they do not fit in a long.
+	 * Decimals are parsed as {@link Double}, or {@link BigDecimal} if they do not fit in a double.
+	 * <p>
+	 * The type is decided by the text, so a decimal like {@code "12.0"} is a {@link Double} even if it is whole.
+	 * Strings which are not json numbers, such as {@code "007"}, {@code "+1"} or {@code "1."}, are not valid.
 	 * 
 	 * @param number The string to create number from.
 	 * @return The number created.
@@ -26,26 +35,14 @@ public class Javason {
 	 * 		If the string is not a valid number.
 	 */
 	public static Number getNumberFromString(String number) throws NumberFormatException {
-		BigDecimal num = new BigDecimal(number); 
-		
-		// Double
-		if (num.doubleValue() % 1 != 0) {
-			// BigDecimal
-			if (num.doubleValue() > Double.MAX_VALUE || num.doubleValue() < Double.MIN_VALUE) {
-				return num;
+		try (JsonTokenizer tokenizer = new JsonTokenizer(number)) { // Returns the pooled buffer
+			if (tokenizer.nextToken() == JsonToken.NUMBER && tokenizer.getText().length() == number.length()) {
+				return tokenizer.getNumber();
 			}
-			return num.doubleValue();
-		// Long
-		} else if (num.toBigIntegerExact().intValue() > Integer.MAX_VALUE || num.toBigIntegerExact().intValue() < Integer.MIN_VALUE) {
-			// BigInteger
-			if (num.longValueExact() > Long.MAX_VALUE || num.longValueExact() < Long.MIN_VALUE) {
-				return BigInteger.valueOf(num.longValueExact());
-			}
-			return num.longValue();
-		// Integer
-		} else {
-			return num.intValue();
+		} catch (JsonException | IOException e) {
+			// Not a json number; closing a String tokenizer cannot throw
 		}
+		throw new NumberFormatException("Invalid number: " + number);
 	}
 	
 	/**
@@ -81,5 +78,154 @@ public class Javason {
 			throw new IllegalArgumentException("The number is not valid!");
 		}
 	}
+
+	/**
+	 * Escape a string to be written between the quotes of a json string.
+	 * The quote, the backslash and the control characters are escaped, and the rest is written as is.
+	 * 
+	 * @param string The string.
+	 * @return The escaped string, which is the same string if nothing needs escaping.
+	 */
+	public static String escape(String string) {
+		int i = 0;
+		while (i < string.length()) {
+			final char c = string.charAt(i);
+			if (c == '\"' || c == '\\' || c < 0x20) break;
+			i++;
+		}
+		if (i == string.length()) {
+			return string;
+		}
+
+		final StringBuilder builder = new StringBuilder(string.length() + 16).append(string, 0, i);
+		for (; i < string.length(); i++) {
+			final char c = string.charAt(i);
+			switch (c) {
+				case '\"': builder.append("\\\""); break;
+				case '\\': builder.append("\\\\"); break;
+				case '\b': builder.append("\\b"); break;
+				case '\f': builder.append("\\f"); break;
+				case '\n': builder.append("\\n"); break;
+				case '\r': builder.append("\\r"); break;
+				case '\t': builder.append("\\t"); break;
+				default:
+					if (c < 0x20) {
+						builder.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+					} else {
+						builder.append(c);
+					}
+			}
+		}
+		return builder.toString();
+	}
+		
+	/**
+	 * Validate a json text by the grammar of RFC 8259, without creating any value.
+	 * Any value is allowed at the root, surrounded by white spaces, and an empty text is not valid.
+	 * Objects and arrays may be nested up to {@link JsonTokenizer#DEFAULT_MAX_DEPTH}, like a parser.
+	 * Nothing is allocated if the json is valid.
+	 * 
+	 * @param json The json text.
+	 * @return The result, which has the position of the first error if the json is not valid.
+	 */
+	public static ValidationResult validate(CharSequence json) {
+		return validate(json, JsonTokenizer.DEFAULT_MAX_DEPTH);
+	}
+	
+	/**
+	 * Validate a json text, see {@link #validate(CharSequence)}.
+	 * 
+	 * @param json The json text.
+	 * @param maxDepth The maximum depth of nested objects and arrays, see {@link JsonTokenizer#setMaxDepth(int)}.
+	 * @return The result, which has the position of the first error if the json is not valid.
+	 */
+	public static ValidationResult validate(CharSequence json, int maxDepth) {
+		checkMaxDepth(maxDepth);
+		return JsonValidator.validate(json, 0, json.length(), maxDepth);
+	}
+	
+	/**
+	 * Validate UTF-8 json bytes, see {@link #validate(CharSequence)}.
+	 * The UTF-8 encoding of the strings is also validated.
+	 * 
+	 * @param json The json bytes.
+	 * @return The result, with the position in bytes.
+	 */
+	public static ValidationResult validate(byte[] json) {
+		return validate(json, JsonTokenizer.DEFAULT_MAX_DEPTH);
+	}
+	
+	/**
+	 * Validate UTF-8 json bytes, see {@link #validate(byte[])}.
+	 * 
+	 * @param json The json bytes.
+	 * @param maxDepth The maximum depth of nested objects and arrays.
+	 * @return The result, with the position in bytes.
+	 */
+	public static ValidationResult validate(byte[] json, int maxDepth) {
+		return validate(json, 0, json.length, maxDepth);
+	}
+	
+	/**
+	 * Validate a range of UTF-8 json bytes, see {@link #validate(CharSequence)}.
+	 * 
+	 * @param json The json bytes.
+	 * @param offset The index of the first byte.
+	 * @param length The amount of bytes.
+	 * @return The result, with the position in bytes from the offset.
+	 */
+	public static ValidationResult validate(byte[] json, int offset, int length) {
+		return validate(json, offset, length, JsonTokenizer.DEFAULT_MAX_DEPTH);
+	}
+	
+	/**
+	 * Validate a range of UTF-8 json bytes, see {@link #validate(byte[], int, int)}.
+	 * 
+	 * @param json The json bytes.
+	 * @param offset The index of the first byte.
+	 * @param length The amount of bytes.
+	 * @param maxDepth The maximum depth of nested objects and arrays.
+	 * @return The result, with the position in bytes from the offset.
+	 */
+	public static ValidationResult validate(byte[] json, int offset, int length, int maxDepth) {
+		if (offset < 0 || length < 0 || offset + length > json.length) {
+			throw new IndexOutOfBoundsException("Invalid range of " + json.length + " bytes: " + offset + ", " + length);
+		}
+		checkMaxDepth(maxDepth);
+		return JsonValidator.validate(json, offset, offset + length, maxDepth);
+	}
 	
+	/**
+	 * Validate the remaining UTF-8 json bytes of a buffer, see {@link #validate(CharSequence)}.
+	 * The position of the buffer is not changed.
+	 * 
+	 * @param json The buffer.
+	 * @return The result, with the position in bytes from the position of the buffer.
+	 */
+	public static ValidationResult validate(ByteBuffer json) {
+		return validate(json, JsonTokenizer.DEFAULT_MAX_DEPTH);
+	}
+	
+	/**
+	 * Validate the remaining UTF-8 json bytes of a buffer, see {@link #validate(ByteBuffer)}.
+	 * 
+	 * @param json The buffer.
+	 * @param maxDepth The maximum depth of nested objects and arrays.
+	 * @return The result, with the position in bytes from the position of the buffer.
+	 */
+	public static ValidationResult validate(ByteBuffer json, int maxDepth) {
+		checkMaxDepth(maxDepth);
+		if (json.hasArray()) {
+			final int offset = json.arrayOffset();
+			return JsonValidator.validate(json.array(), offset + json.position(), offset + json.limit(), maxDepth);
+		}
+		return JsonValidator.validate(json, json.position(), json.limit(), maxDepth);
+	}
+	
+	private static void checkMaxDepth(int maxDepth) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("The maximum depth must be positive!");
+		}
+	}
+
 }
@@ -3,10 +3,9 @@ package com.github.alienideology.javason;
 import java.math.BigDecimal;
 
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 
@@ -15,13 +14,17 @@ import com.github.alienideology.javason.exception.JsonException;
 
 public class JsonArray implements Iterable<Object> {
 	
-	private List<Object> array;
+	private ValueList array; // Numbers of the same type are kept unboxed
+	
+	private volatile boolean frozen;
+	private String json; // Nullable, toString() of a frozen array, cached when it is first built
+	private int hash; // hashCode() of a frozen array, 0 until it is first computed
 	
 	/**
 	 * Creates an empty JsonArray.
 	 */
 	public JsonArray() {
-		this.array = new ArrayList<>();
+		this.array = new ValueList();
 	}
 	
 	/**
@@ -30,7 +33,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @param json The json source.
 	 */
 	public JsonArray(String json) {
-		this.array = new ArrayList<>(new JsonParser(json).parseArray().getAsCollection());
+		this.array = new ValueList(new JsonParser(json).parseArray().getAsCollection());
 	}
 	
 	/**
@@ -39,7 +42,12 @@ public class JsonArray implements Iterable<Object> {
 	 * @param collection The collection.
 	 */
 	public JsonArray(Collection<?> collection) {
-		this.array = new ArrayList<>(collection);
+		this.array = new ValueList(collection);
+	}
+	
+	// Take the elements without copying
+	JsonArray(ValueList array) {
+		this.array = array;
 	}
 	
 	/**
@@ -48,7 +56,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @param array The array.
 	 */
 	public <T> JsonArray(T[] array) {
-		this.array = new ArrayList<>();
+		this.array = new ValueList();
 		for (T element : array) {
 			this.array.add(element);
 		}
@@ -137,9 +145,10 @@ public class JsonArray implements Iterable<Object> {
 	 * Get the integer value from a given index.
 	 * Possible conversions:
 	 * <ul>
+	 * 		<li>If the value is a {@link JsonNumber}, then its {@link JsonNumber#getValue()} will be converted.</li>
 	 * 		<li>If the value is a {@link Long}, then it will be converted to integer using {@link Math#toIntExact(long)}.</li>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using {@link Number#intValue()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Integer#parseInt(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Integer#parseInt(String)}.</li>
 	 * </ul>
 	 *
 	 * @param index The index, between {@code 0} and {@link #size()} - 1.
@@ -150,14 +159,20 @@ public class JsonArray implements Iterable<Object> {
 	 * 		If the value is not listed above, or if the {@link String} cannot be converted to an {@link Integer}. See {@link NumberFormatException}.
 	 */
 	public int getInt(int index) throws JsonException, InvalidTypeException {
-		Object val = array.get(index);
+		if (array.isNumeric()) {
+			return array.intAt(index);
+		}
+		Object val = get(index);
+		if (val instanceof JsonNumber) {
+			val = ((JsonNumber) val).getValue();
+		}
 		if (val instanceof Long) {
 			return Math.toIntExact((Long) val);
 		} else if (val instanceof Number) {
 			return ((Number) val).intValue();
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Integer.parseInt((String) val);
+				return Integer.parseInt(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Integer.class, String.class);
 			}
@@ -190,7 +205,7 @@ public class JsonArray implements Iterable<Object> {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using {@link Number#doubleValue()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Double#parseDouble(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Double#parseDouble(String)}.</li>
 	 * </ul>
 	 *
 	 * @param index The index, between {@code 0} and {@link #size()} - 1.
@@ -201,12 +216,15 @@ public class JsonArray implements Iterable<Object> {
 	 * 		If the value is not listed above, or if the {@link String} cannot be converted to an {@link Double}. See {@link NumberFormatException}.
 	 */
 	public double getDouble(int index) throws JsonException, InvalidTypeException {
-		Object val = array.get(index);
+		if (array.isNumeric()) {
+			return array.doubleAt(index);
+		}
+		Object val = get(index);
 		if (val instanceof Number) {
 			return ((Number) val).doubleValue();
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Double.parseDouble((String) val);
+				return Double.parseDouble(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Double.class, String.class);
 			}
@@ -239,7 +257,7 @@ public class JsonArray implements Iterable<Object> {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using {@link Number#floatValue()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Float#parseFloat(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Float#parseFloat(String)}.</li>
 	 * </ul>
 	 *
 	 * @param index The index, between {@code 0} and {@link #size()} - 1.
@@ -250,12 +268,15 @@ public class JsonArray implements Iterable<Object> {
 	 * 		If the value is not listed above, or if the {@link String} cannot be converted to an {@link Float}. See {@link NumberFormatException}.
 	 */
 	public float getFloat(int index) throws JsonException, InvalidTypeException {
-		Object val = array.get(index);
+		if (array.isNumeric()) {
+			return (float) array.doubleAt(index);
+		}
+		Object val = get(index);
 		if (val instanceof Number) {
 			return ((Number) val).floatValue();
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Float.parseFloat((String) val);
+				return Float.parseFloat(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Float.class, String.class);
 			}
@@ -288,7 +309,7 @@ public class JsonArray implements Iterable<Object> {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using {@link Number#longValue()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Long#parseLong(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Long#parseLong(String)}.</li>
 	 * </ul>
 	 *
 	 * @param index The index, between {@code 0} and {@link #size()} - 1.
@@ -299,12 +320,15 @@ public class JsonArray implements Iterable<Object> {
 	 * 		If the value is not listed above, or if the {@link String} cannot be converted to an {@link Long}. See {@link NumberFormatException}.
 	 */
 	public long getLong(int index) throws JsonException, InvalidTypeException {
-		Object val = array.get(index);
+		if (array.isNumeric()) {
+			return array.longAt(index);
+		}
+		Object val = get(index);
 		if (val instanceof Number) {
 			return ((Number) val).longValue();
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Long.parseLong((String) val);
+				return Long.parseLong(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Long.class, String.class);
 			}
@@ -337,7 +361,7 @@ public class JsonArray implements Iterable<Object> {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Number}, return.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Javason#getNumberFromString(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Javason#getNumberFromString(String)}.</li>
 	 * </ul>
 	 *
 	 * @param index The index, between {@code 0} and {@link #size()} - 1.
@@ -349,11 +373,11 @@ public class JsonArray implements Iterable<Object> {
 	 */
 	// Nullable
 	public Number getNum(int index) throws NumberFormatException,  InvalidTypeException {
-		Object val = array.get(index);
+		Object val = get(index);
 		if (val instanceof Number) {
 			return (Number) val;
-		} else if (val instanceof String) {
-			return Javason.getNumberFromString((String) val);
+		} else if (val instanceof CharSequence) {
+			return Javason.getNumberFromString(val.toString());
 		} else if (val == null) {
 			return null;
 		} else {
@@ -366,9 +390,10 @@ public class JsonArray implements Iterable<Object> {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link BigInteger}, return.</li>
+	 * 		<li>If the value is a {@link JsonNumber}, then it will be converted using {@link JsonNumber#bigIntegerValue()}.</li>
 	 * 		<li>If the value if a {@link BigDecimal}, then it will be converted using {@link BigDecimal#toBigIntegerExact()}.</li>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using the {@link BigInteger(String)} constructor and {@link Number#toString()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using the {@link BigInteger(String)} constructor.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using the {@link BigInteger(String)} constructor.</li>
 	 * </ul>
 	 *
 	 * @param index The index, between {@code 0} and {@link #size()} - 1.
@@ -378,16 +403,18 @@ public class JsonArray implements Iterable<Object> {
 	 */
 	// Nullable
 	public BigInteger getBigInteger(int index) {
-		Object val = array.get(index);
+		Object val = get(index);
 		if (val instanceof BigInteger) {
 			return (BigInteger) val;
+		} else if (val instanceof JsonNumber) {
+			return ((JsonNumber) val).bigIntegerValue();
 		} else if (val instanceof BigDecimal) {
 			return ((BigDecimal) val).toBigInteger();
 		} else if (val instanceof Number) {
 			return new BigInteger(((Number) val).toString());
-		} else  if (val instanceof String) {
+		} else  if (val instanceof CharSequence) {
 			try {
-				return new BigInteger((String) val);
+				return new BigInteger(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(BigInteger.class, String.class);
 			}
@@ -403,9 +430,10 @@ public class JsonArray implements Iterable<Object> {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link BigDecimal}, return.</li>
+	 * 		<li>If the value is a {@link JsonNumber}, then it will be converted exactly using {@link JsonNumber#bigDecimalValue()}.</li>
 	 * 		<li>If the value if a {@link BigInteger}, then it will be converted using {@link BigDecimal#valueOf(double)} and {@link BigInteger#doubleValue()}.</li>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using the {@link BigDecimal(String)} constructor and {@link Number#toString()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using the {@link BigDecimal(String)} constructor.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using the {@link BigDecimal(String)} constructor.</li>
 	 * </ul>
 	 *
 	 * @param index The index, between {@code 0} and {@link #size()} - 1.
@@ -415,16 +443,18 @@ public class JsonArray implements Iterable<Object> {
 	 */
 	// Nullable
 	public BigDecimal getBigDecimal(int index) {
-		Object val = array.get(index);
+		Object val = get(index);
 		if (val instanceof BigDecimal) {
 			return (BigDecimal) val;
+		} else if (val instanceof JsonNumber) {
+			return ((JsonNumber) val).bigDecimalValue();
 		} else if (val instanceof BigInteger) {
 			return BigDecimal.valueOf(((BigInteger) val).doubleValue());
 		} else if (val instanceof Number) {
 			return new BigDecimal(((Number) val).toString());
-		} else  if (val instanceof String) {
+		} else  if (val instanceof CharSequence) {
 			try {
-				return new BigDecimal((String) val);
+				return new BigDecimal(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(BigDecimal.class, String.class);
 			}
@@ -440,7 +470,7 @@ public class JsonArray implements Iterable<Object> {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Boolean}, return.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Boolean#parseBoolean(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Boolean#parseBoolean(String)}.</li>
 	 * </ul>
 	 *
 	 * @param index The index, between {@code 0} and {@link #size()} - 1.
@@ -451,12 +481,12 @@ public class JsonArray implements Iterable<Object> {
 	 * 		If the value is not listed above.
 	 */
 	public boolean getBoolean(int index) throws JsonException, InvalidTypeException {
-		Object val = array.get(index);
+		Object val = get(index);
 		if (val instanceof Boolean) {
 			return (boolean) val;
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Boolean.parseBoolean((String) val);
+				return Boolean.parseBoolean(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Boolean.class, String.class);
 			}
@@ -493,7 +523,8 @@ public class JsonArray implements Iterable<Object> {
 	 */
 	// Nullable
 	public String getString(int index) {
-		return array.get(index) == null ? null : String.valueOf(array.get(index));
+		final Object val = get(index);
+		return val == null ? null : String.valueOf(val);
 	}
 	
 	/**
@@ -506,7 +537,7 @@ public class JsonArray implements Iterable<Object> {
 	 */
 	// Nullable
 	public JsonObject getObject(int index) throws InvalidTypeException {
-		Object val = array.get(index);
+		Object val = get(index);
 		
 		if (val instanceof JsonObject) {
 			return (JsonObject) val;
@@ -527,7 +558,7 @@ public class JsonArray implements Iterable<Object> {
 	 */
 	// Nullable
 	public JsonArray getArray(int index) throws InvalidTypeException {
-		Object val = array.get(index);
+		Object val = get(index);
 		
 		if (val instanceof JsonArray) {
 			return (JsonArray) val;
@@ -556,7 +587,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return True if the json object contains the key, and the value is not {@code null}.
 	 */
 	public boolean notNull(int index) {
-		return index >= 0 && index < array.size() && array.get(index) != null;
+		return index >= 0 && index < size() && get(index) != null;
 	}
 	
 	/**
@@ -568,9 +599,11 @@ public class JsonArray implements Iterable<Object> {
 	 * 		If the object is a {@link Double} or {@link Float}, and the number is not valid. See {@link Javason#isNumberValid(Number)}.
 	 */
 	public JsonArray add(Object object) throws IllegalArgumentException {
+		checkNotFrozen();
 		if (object instanceof Number) {
 			Javason.validateNumber((Number) object);
-		} else if (object.getClass().isArray()) {
+			array.add(object);
+		} else if (object != null && object.getClass().isArray()) {
 			array.add(new JsonArray((Object[]) object));
 		} else if (object instanceof Collection) {
 			array.add(new JsonArray((Collection<?>) object));
@@ -587,7 +620,8 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray add(int value) {
-		array.add(value);
+		checkNotFrozen();
+		array.addInt(value);
 		return this;
 	}
 	
@@ -600,7 +634,11 @@ public class JsonArray implements Iterable<Object> {
 	 * 		If the number is not valid. See {@link Javason#isNumberValid(Number)}.
 	 */
 	public JsonArray add(double value) throws IllegalArgumentException {
-		array.add(value);
+		checkNotFrozen();
+		if (Double.isInfinite(value) || Double.isNaN(value)) {
+			throw new IllegalArgumentException("The number is not valid!");
+		}
+		array.addDouble(value);
 		return this;
 	}
 	
@@ -613,8 +651,7 @@ public class JsonArray implements Iterable<Object> {
 	 * 		If the number is not valid. See {@link Javason#isNumberValid(Number)}.
 	 */
 	public JsonArray add(float value) throws IllegalArgumentException {
-		array.add(value);
-		return this;
+		return add((Object) value);
 	}
 	
 	/**
@@ -624,7 +661,9 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray add(long value) {
-		return add(value);
+		checkNotFrozen();
+		array.addLong(value);
+		return this;
 	}
 	
 	/**
@@ -634,7 +673,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray add(boolean value) {
-		return add(value);
+		return add((Object) value);
 	}
 	
 	/**
@@ -644,7 +683,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray add(String value) {
-		return add(value);
+		return add((Object) value);
 	}
 	
 	/**
@@ -654,7 +693,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray add(JsonObject value) {
-		return add(value);
+		return add((Object) value);
 	}
 	
 	/**
@@ -674,7 +713,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray add(JsonArray value) {
-		return add(value);
+		return add((Object) value);
 	}
 	
 	/**
@@ -699,6 +738,7 @@ public class JsonArray implements Iterable<Object> {
 	 * 			If the object is a {@link Double} or {@link Float}, and the number is not valid. See {@link Javason#isNumberValid(Number)}.
 	 */
 	public JsonArray put(int index, Object object) throws IllegalArgumentException {
+		checkNotFrozen();
 		if (object instanceof Number) {
 			Javason.validateNumber((Number) object);
 		}
@@ -722,7 +762,14 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray put(int index, int value) {
-		return put(index, value);
+		checkNotFrozen();
+		if (index < 0) index = 0;
+		if (index >= array.size()) {
+			array.addInt(value);
+		} else {
+			array.setInt(index, value);
+		}
+		return this;
 	}
 	
 	/**
@@ -737,7 +784,18 @@ public class JsonArray implements Iterable<Object> {
 	 * 			If the number is not valid. See {@link Javason#isNumberValid(Number)}.
 	 */
 	public JsonArray put(int index, double value) throws IllegalArgumentException {
-		return put(index, value);
+		checkNotFrozen();
+		if (Double.isInfinite(value) || Double.isNaN(value)) {
+			throw new IllegalArgumentException("The number is not valid!");
+		}
+		
+		if (index < 0) index = 0;
+		if (index >= array.size()) {
+			array.addDouble(value);
+		} else {
+			array.setDouble(index, value);
+		}
+		return this;
 	}
 	
 	/**
@@ -752,7 +810,7 @@ public class JsonArray implements Iterable<Object> {
 	 * 			If the number is not valid. See {@link Javason#isNumberValid(Number)}.
 	 */
 	public JsonArray put(int index, float value) throws IllegalArgumentException {
-		return put(index, value);
+		return put(index, (Object) value);
 	}
 	
 	/**
@@ -765,7 +823,14 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray put(int index, long value) {
-		return put(index, value);
+		checkNotFrozen();
+		if (index < 0) index = 0;
+		if (index >= array.size()) {
+			array.addLong(value);
+		} else {
+			array.setLong(index, value);
+		}
+		return this;
 	}
 	
 	/**
@@ -778,7 +843,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray put(int index, boolean value) {
-		return put(index, value);
+		return put(index, (Object) value);
 	}
 	
 	/**
@@ -791,7 +856,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray put(int index, String value) {
-		return put(index, value);
+		return put(index, (Object) value);
 	}
 	
 	/**
@@ -804,7 +869,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray put(int index, JsonObject value) {
-		return put(index, value);
+		return put(index, (Object) value);
 	}
 	
 	/**
@@ -828,7 +893,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray put(int index, JsonArray value) {
-		return put(index, value);
+		return put(index, (Object) value);
 	}
 	
 	/**
@@ -843,6 +908,103 @@ public class JsonArray implements Iterable<Object> {
 		return put(index, new JsonArray(value));
 	}
 	
+	/**
+	 * Add all the {@link Integer}s of an array to the array.
+	 * The values are copied without boxing while the array only has integers.
+	 * 
+	 * @param values The integers to add.
+	 * @return This JsonArray, easier for chaining.
+	 */
+	public JsonArray addAll(int[] values) {
+		checkNotFrozen();
+		array.addAll(values);
+		return this;
+	}
+	
+	/**
+	 * Add all the {@link Long}s of an array to the array.
+	 * The values are copied without boxing while the array only has longs.
+	 * 
+	 * @param values The longs to add.
+	 * @return This JsonArray, easier for chaining.
+	 */
+	public JsonArray addAll(long[] values) {
+		checkNotFrozen();
+		array.addAll(values);
+		return this;
+	}
+	
+	/**
+	 * Add all the {@link Double}s of an array to the array.
+	 * The values are copied without boxing while the array only has doubles.
+	 * 
+	 * @param values The doubles to add.
+	 * @return This JsonArray, easier for chaining.
+	 * @throws IllegalArgumentException
+	 * 		If a number is not valid. See {@link Javason#isNumberValid(Number)}.
+	 */
+	public JsonArray addAll(double[] values) throws IllegalArgumentException {
+		checkNotFrozen();
+		for (double value : values) {
+			if (Double.isInfinite(value) || Double.isNaN(value)) {
+				throw new IllegalArgumentException("The number is not valid!");
+			}
+		}
+		array.addAll(values);
+		return this;
+	}
+	
+	/**
+	 * Get all the values as integers, see {@link #getInt(int)} for the conversions.
+	 * 
+	 * @return A new array of the integers.
+	 * @throws JsonException
+	 * 		If a value is null.
+	 * @throws InvalidTypeException
+	 * 		If a value cannot be converted, see {@link #getInt(int)}.
+	 */
+	public int[] toIntArray() throws JsonException, InvalidTypeException {
+		final int[] values = new int[size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getInt(i);
+		}
+		return values;
+	}
+	
+	/**
+	 * Get all the values as longs, see {@link #getLong(int)} for the conversions.
+	 * 
+	 * @return A new array of the longs.
+	 * @throws JsonException
+	 * 		If a value is null.
+	 * @throws InvalidTypeException
+	 * 		If a value cannot be converted, see {@link #getLong(int)}.
+	 */
+	public long[] toLongArray() throws JsonException, InvalidTypeException {
+		final long[] values = new long[size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getLong(i);
+		}
+		return values;
+	}
+	
+	/**
+	 * Get all the values as doubles, see {@link #getDouble(int)} for the conversions.
+	 * 
+	 * @return A new array of the doubles.
+	 * @throws JsonException
+	 * 		If a value is null.
+	 * @throws InvalidTypeException
+	 * 		If a value cannot be converted, see {@link #getDouble(int)}.
+	 */
+	public double[] toDoubleArray() throws JsonException, InvalidTypeException {
+		final double[] values = new double[size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getDouble(i);
+		}
+		return values;
+	}
+	
 	/**
 	 * Remove a value at a given index.
 	 * 
@@ -850,6 +1012,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return The object removed.
 	 */
 	public Object remove(int index) {
+		checkNotFrozen();
 		return array.remove(index);
 	}
 	
@@ -860,6 +1023,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return The object removed.
 	 */
 	public Object remove(Object object) {
+		checkNotFrozen();
 		return array.remove(object);
 	}
 	
@@ -887,6 +1051,7 @@ public class JsonArray implements Iterable<Object> {
 	 * @return This JsonArray, easier for chaining.
 	 */
 	public JsonArray clear() {
+		checkNotFrozen();
 		array.clear();
 		return this;
 	}
@@ -902,26 +1067,82 @@ public class JsonArray implements Iterable<Object> {
 	
 	/**
 	 * Get this json array as a collection of objects.
+	 * The collection is unmodifiable if this json array is frozen.
 	 * 
 	 * @return An collection of objects.
 	 */
 	public Collection<Object> getAsCollection() {
-		return array;
+		return frozen ? Collections.unmodifiableList(array) : array;
 	}
 
 	@Override
 	public void forEach(Consumer<? super Object> arg0) {
-		array.forEach(arg0);
+		getAsCollection().forEach(arg0);
 	}
 
 	@Override
 	public Iterator<Object> iterator() {
-		return array.iterator();
+		return getAsCollection().iterator();
 	}
 
 	@Override
 	public Spliterator<Object> spliterator() {
-		return array.spliterator();
+		return getAsCollection().spliterator();
+	}
+	
+	/**
+	 * Freeze this json array, so it is deeply immutable.
+	 * The json objects and arrays in this array are frozen as well, without copying them,
+	 * and methods which modify a frozen array throw {@link UnsupportedOperationException}s.
+	 * The {@link #hashCode()} and {@link #toString()} of a frozen array are cached.
+	 * <p>
+	 * Freezing visits the whole tree once, and lazily parsed elements are parsed.
+	 * Freezing a frozen array takes O(1).
+	 * 
+	 * @return This JsonArray, easier for chaining.
+	 */
+	public JsonArray freeze() {
+		if (!frozen) JsonObject.freeze(this);
+		return this;
+	}
+	
+	/**
+	 * Check if this json array is frozen, see {@link #freeze()}.
+	 * 
+	 * @return True if the json array is frozen.
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (!(obj instanceof JsonArray)) {
+			return false;
+		}
+		final JsonArray other = (JsonArray) obj;
+		if (frozen && other.frozen && hash != 0 && other.hash != 0 && hash != other.hash) {
+			return false;
+		}
+		if (size() != other.size()) {
+			return false;
+		}
+		for (int i = 0; i < size(); i++) {
+			if (!JsonString.equal(get(i), other.get(i))) return false;
+		}
+		return true;
+	}
+	
+	@Override
+	public int hashCode() {
+		if (hash != 0) {
+			return hash;
+		}
+		final int hash = getAsCollection().hashCode();
+		if (frozen) this.hash = hash;
+		return hash;
 	}
 	
 	/**
@@ -945,17 +1166,21 @@ public class JsonArray implements Iterable<Object> {
 	}
 	
 	String toString(int indent, int layer) {
+		if (indent == 0 && json != null) { // Not indented, so the layer does not change the string
+			return json;
+		}
 		final boolean indented = indent != 0;
 		/* Opening Bracket */
 		final StringBuilder builder = new StringBuilder("[");
 		
-		if (array.isEmpty()) {
+		if (isEmpty()) {
 			return builder.append("]").toString();
 		}
 		
 		/* Content */
-		int indexC = 0; // Used to count index
-		for (Object val : array) {
+		final boolean numeric = array.isNumeric();
+		final int size = size();
+		for (int indexC = 0; indexC < size; indexC++) {
 			if (indented) {
 				builder.append("\n");
 				for (int i = 0; i < indent * layer; i++) {
@@ -963,8 +1188,13 @@ public class JsonArray implements Iterable<Object> {
 				}
 			}
 			
-			if (val instanceof String) {
-				builder.append("\"").append(val).append("\""); 
+			final Object val = numeric ? null : get(indexC);
+			if (numeric) {
+				array.appendTo(builder, indexC);
+			} else if (val instanceof JsonString) {
+				builder.append("\"").append(((JsonString) val).raw()).append("\"");
+			} else if (val instanceof String) {
+				builder.append("\"").append(Javason.escape((String) val)).append("\""); 
 			} else if (val instanceof JsonObject) {
 				builder.append(((JsonObject) val).toString(indent, layer+1));
 			} else if (val instanceof JsonArray) {
@@ -973,10 +1203,9 @@ public class JsonArray implements Iterable<Object> {
 				builder.append(val);
 			}
 			
-			if (indexC != array.size() - 1) { // Ignore last element
+			if (indexC != size - 1) { // Ignore last element
 				builder.append(",");
 			}
-			indexC++;
 		}
 		
 		/* Close Parenthesis */
@@ -984,7 +1213,33 @@ public class JsonArray implements Iterable<Object> {
 		for (int i = 0; i < indent * (layer - 1); i++) { // layer - 1 because closing parenthesis are one tab before the content indent
 			builder.append(" ");
 		}
-		return builder.append("]").toString();
+		final String json = builder.append("]").toString();
+		if (frozen && !indented) this.json = json;
+		return json;
+	}
+	
+	private void checkNotFrozen() throws UnsupportedOperationException {
+		if (frozen) {
+			throw new UnsupportedOperationException("The JSON array is frozen!");
+		}
+	}
+	
+	// Parse the elements which are parsed on demand, lazy arrays override this
+	void load() {
+	}
+	
+	// Set the flag once the elements are frozen
+	void markFrozen() {
+		frozen = true;
+	}
+	
+	// Visit the json objects and arrays in this array
+	void forEachContainer(Consumer<Object> action) {
+		if (array.isNumeric()) return;
+		for (int i = 0; i < size(); i++) {
+			final Object value = get(i);
+			if (value instanceof JsonObject || value instanceof JsonArray) action.accept(value);
+		}
 	}
 	
 }
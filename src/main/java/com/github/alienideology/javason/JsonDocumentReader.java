@@ -0,0 +1,238 @@
+package com.github.alienideology.javason;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * An iterator of the json objects and arrays in a stream of concatenated values, such as a pipe or a growing log file.
+ * The values may be separated by white spaces, or not separated at all.
+ * <p>
+ * After each value, {@link #getCheckpoint()} is the offset right after it,
+ * which can be saved to resume from the next value with {@link #JsonDocumentReader(FileChannel, long)}.
+ * In tail mode, the end of a file is waited on for more data to be appended, instead of ending the iteration.
+ *
+ * @author AlienIdeology
+ */
+public class JsonDocumentReader implements Iterator<Object>, Closeable {
+
+	/**
+	 * The default interval to check for more data in tail mode, in milliseconds.
+	 */
+	public final static long DEFAULT_POLL_INTERVAL = 500;
+
+	private final JsonTokenizer tokenizer;
+	private final Closeable source;
+	private final long start; // Offset of the start of the tokenizer in the source
+	private ChannelStream channelStream; // Nullable, only for channels
+
+	private JsonToken next; // Nullable, the first token of the next value
+	private long checkpoint;
+	private boolean closed;
+
+	/**
+	 * Construct a reader by a given reader.
+	 * The checkpoints are in chars, from the current position of the reader.
+	 *
+	 * @param reader The reader.
+	 */
+	public JsonDocumentReader(Reader reader) {
+		this.tokenizer = new JsonTokenizer(reader);
+		this.source = reader;
+		this.start = 0;
+		this.checkpoint = 0;
+		tokenizer.setSymbolTable(new SymbolTable());
+	}
+
+	/**
+	 * Construct a reader by a given UTF-8 file channel, from the current position of the channel.
+	 * The checkpoints are the positions in the channel, in bytes.
+	 *
+	 * @param channel The channel.
+	 * @throws IOException
+	 * 		If an I/O error occurs.
+	 */
+	public JsonDocumentReader(FileChannel channel) throws IOException {
+		this(channel, channel.position());
+	}
+
+	/**
+	 * Construct a reader by a given UTF-8 file channel, resuming from a checkpoint.
+	 *
+	 * @param channel The channel.
+	 * @param checkpoint The checkpoint, see {@link #getCheckpoint()}.
+	 * @throws IOException
+	 * 		If an I/O error occurs.
+	 */
+	public JsonDocumentReader(FileChannel channel, long checkpoint) throws IOException {
+		channel.position(checkpoint);
+		this.channelStream = new ChannelStream(channel);
+		this.tokenizer = new JsonTokenizer(channelStream);
+		this.source = channel;
+		this.start = checkpoint;
+		this.checkpoint = checkpoint;
+		tokenizer.setSymbolTable(new SymbolTable());
+	}
+
+	/**
+	 * Set the tail mode of a file channel.
+	 * In tail mode, the end of the file is checked for more data at an interval, until the reader is closed.
+	 *
+	 * @param tail True for tail mode.
+	 * @param pollInterval The interval, in milliseconds.
+	 * @return The reader for chaining.
+	 * @throws IllegalStateException
+	 * 		If the reader is not constructed by a file channel.
+	 */
+	public JsonDocumentReader setTail(boolean tail, long pollInterval) throws IllegalStateException {
+		if (channelStream == null) {
+			throw new IllegalStateException("Only a file channel can be read in tail mode!");
+		}
+		channelStream.tail = tail;
+		channelStream.pollInterval = pollInterval;
+		return this;
+	}
+
+	/**
+	 * Set the tail mode of a file channel, with the {@link #DEFAULT_POLL_INTERVAL}.
+	 *
+	 * @param tail True for tail mode.
+	 * @return The reader for chaining.
+	 * @throws IllegalStateException
+	 * 		If the reader is not constructed by a file channel.
+	 */
+	public JsonDocumentReader setTail(boolean tail) throws IllegalStateException {
+		return setTail(tail, DEFAULT_POLL_INTERVAL);
+	}
+
+	/**
+	 * Set the maximum depth of nested objects and arrays, see {@link JsonTokenizer#setMaxDepth(int)}.
+	 *
+	 * @param maxDepth The maximum depth.
+	 * @return The reader for chaining.
+	 */
+	public JsonDocumentReader setMaxDepth(int maxDepth) {
+		tokenizer.setMaxDepth(maxDepth);
+		return this;
+	}
+
+	/**
+	 * Check if there is another value. In tail mode, this waits until a value starts.
+	 *
+	 * @return True if there is another value, false if the reader is closed.
+	 * @throws JsonException
+	 * 		For any syntax errors, or if an I/O error occurs.
+	 */
+	@Override
+	public synchronized boolean hasNext() throws JsonException {
+		if (closed) {
+			return false;
+		} else if (next == null) {
+			tokenizer.nextDocument();
+			next = tokenizer.nextToken();
+		}
+		return next != JsonToken.END_DOCUMENT;
+	}
+
+	/**
+	 * Read the next value.
+	 *
+	 * @return The {@link JsonObject} or {@link JsonArray}.
+	 * @throws JsonException
+	 * 		For any syntax errors, or if an I/O error occurs.
+	 * @throws NoSuchElementException
+	 * 		If there is no more value.
+	 */
+	@Override
+	public synchronized Object next() throws JsonException, NoSuchElementException {
+		if (!hasNext()) {
+			throw new NoSuchElementException("There is no more json value!");
+		} else if (next != JsonToken.START_OBJECT && next != JsonToken.START_ARRAY) {
+			throw new JsonException("A Json value must to starts with \"{\" or \"[\" at index: " + (start + tokenizer.getTokenOffset()));
+		}
+
+		JsonToken token = next;
+		next = null;
+		final TreeBuilder builder = new TreeBuilder();
+		while (!builder.add(tokenizer, token)) {
+			token = tokenizer.nextToken();
+		}
+		checkpoint = start + tokenizer.getTokenOffset() + 1; // After the closing "}" or "]"
+		return builder.getValue();
+	}
+
+	/**
+	 * Get the offset right after the last value, or the offset where the reader started if no value has been read.
+	 *
+	 * @return The offset.
+	 */
+	public long getCheckpoint() {
+		return checkpoint;
+	}
+
+	/**
+	 * Close the reader or the channel, and return the buffer to be reused, which also stops waiting in tail mode.
+	 * If another thread is waiting, this returns once it stops waiting, within the poll interval.
+	 *
+	 * @throws IOException
+	 * 		If an I/O error occurs.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channelStream != null) {
+			channelStream.closed = true; // Stop waiting before the buffer is released
+		}
+		synchronized (this) {
+			if (closed) return;
+			closed = true;
+			try {
+				tokenizer.close();
+			} finally {
+				source.close();
+			}
+		}
+	}
+
+	// Reads a channel, waiting for more data at the end in tail mode
+	private static class ChannelStream extends InputStream {
+		private final FileChannel channel;
+		private volatile boolean tail;
+		private volatile long pollInterval = DEFAULT_POLL_INTERVAL;
+		private volatile boolean closed;
+
+		private ChannelStream(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			while (true) {
+				final int read = closed ? -1 : channel.read(ByteBuffer.wrap(b, off, len));
+				if (read > 0 || !tail || closed) {
+					return read;
+				}
+				try {
+					Thread.sleep(pollInterval);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for more data!");
+				}
+			}
+		}
+	}
+
+}
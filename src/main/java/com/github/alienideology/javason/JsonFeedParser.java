@@ -0,0 +1,171 @@
+package com.github.alienideology.javason;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * A non-blocking parser for UTF-8 json which arrives in chunks, such as from a {@link java.nio.channels.SocketChannel}.
+ * The chunks are fed as they arrive, then tokens or objects are pulled once enough input is available.
+ * Instead of blocking for more input, {@link JsonToken#NEED_MORE_INPUT} is returned,
+ * and the incomplete token or object is continued when the next chunk is fed.
+ * <p>
+ * The fed bytes are copied, so the chunks can be reused once they are fed.
+ * Only the bytes of the incomplete token are kept, besides the objects being built.
+ * The buffer is pooled, so the parser should be closed once the connection is done.
+ *
+ * @author AlienIdeology
+ */
+public class JsonFeedParser implements Closeable {
+
+	private final JsonTokenizer tokenizer;
+	private TreeBuilder builder; // Nullable, the value being built by nextObject() or nextArray()
+	private boolean closed;
+
+	/**
+	 * Construct a parser with the {@link JsonTokenizer#DEFAULT_BUFFER_SIZE}.
+	 */
+	public JsonFeedParser() {
+		this(JsonTokenizer.DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Construct a parser with a buffer size.
+	 * The buffer grows if a fed chunk and the incomplete token do not fit in it.
+	 *
+	 * @param bufferSize The initial size of the buffer, in bytes.
+	 */
+	public JsonFeedParser(int bufferSize) {
+		this.tokenizer = new JsonTokenizer(bufferSize);
+		this.tokenizer.setSymbolTable(new SymbolTable());
+	}
+
+	/**
+	 * Feed the remaining bytes of a chunk.
+	 * The position of the chunk is moved to its limit.
+	 *
+	 * @param chunk The chunk.
+	 * @return The parser for chaining.
+	 * @throws IllegalStateException
+	 * 		If the end of the input has been fed, or if the parser is closed.
+	 */
+	public JsonFeedParser feed(ByteBuffer chunk) throws IllegalStateException {
+		if (closed) {
+			throw new IllegalStateException("The parser is closed!");
+		}
+		tokenizer.feed(chunk);
+		return this;
+	}
+
+	/**
+	 * Feed the end of the input, so that a root number can be completed, and an incomplete json throws.
+	 *
+	 * @return The parser for chaining.
+	 */
+	public JsonFeedParser endOfInput() {
+		tokenizer.endInput();
+		return this;
+	}
+
+	/**
+	 * Read the next token.
+	 *
+	 * @return The token, or {@link JsonToken#NEED_MORE_INPUT} if the fed input has no complete token.
+	 * @throws JsonException
+	 * 		For any syntax errors.
+	 */
+	public JsonToken nextToken() throws JsonException {
+		return tokenizer.nextToken();
+	}
+
+	/**
+	 * Read the next object, which may be the root object, or an element of an array.
+	 * The start of a root array is read past, so the objects of a root array are read one by one,
+	 * such as {@code [{"x":1},{"x":2}]}, without calling {@link #nextToken()} first.
+	 *
+	 * @return The object, or null if {@link #getToken()} is {@link JsonToken#NEED_MORE_INPUT}, {@link JsonToken#END_ARRAY}
+	 * or {@link JsonToken#END_DOCUMENT}.
+	 * @throws JsonException
+	 * 		For any syntax errors, or if the next value is not an object.
+	 */
+	// Nullable
+	public JsonObject nextObject() throws JsonException {
+		return (JsonObject) nextValue(JsonToken.START_OBJECT);
+	}
+
+	/**
+	 * Read the next array, which may be the root array, or an element of an array.
+	 *
+	 * @return The array, or null if {@link #getToken()} is {@link JsonToken#NEED_MORE_INPUT}, {@link JsonToken#END_ARRAY}
+	 * or {@link JsonToken#END_DOCUMENT}.
+	 * @throws JsonException
+	 * 		For any syntax errors, or if the next value is not an array.
+	 */
+	// Nullable
+	public JsonArray nextArray() throws JsonException {
+		return (JsonArray) nextValue(JsonToken.START_ARRAY);
+	}
+
+	// Continue building the value, or return null if it is not complete
+	private Object nextValue(JsonToken start) {
+		JsonToken token;
+		while ((token = tokenizer.nextToken()) != JsonToken.NEED_MORE_INPUT) {
+			if (builder == null) {
+				if (token == JsonToken.END_ARRAY || token == JsonToken.END_DOCUMENT) {
+					return null;
+				} else if (token == JsonToken.START_ARRAY && start == JsonToken.START_OBJECT && tokenizer.getDepth() == 1) {
+					continue; // The root array of the objects
+				} else if (token != start) {
+					throw new JsonException(start == JsonToken.START_OBJECT
+							? "A Json object must to starts with \"{\"!"
+							: "A Json array must to starts with \"[\"!");
+				}
+				builder = new TreeBuilder();
+			}
+			if (builder.add(tokenizer, token)) {
+				final Object value = builder.getValue();
+				builder = null;
+				return value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the current token.
+	 *
+	 * @return The token, or null if no token has been read.
+	 */
+	// Nullable
+	public JsonToken getToken() {
+		return tokenizer.getToken();
+	}
+
+	/**
+	 * Return the buffer of the parser to be reused by other parsers, and drop the incomplete value.
+	 * The parser cannot be fed after it is closed.
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		builder = null;
+		try {
+			tokenizer.close();
+		} catch (IOException e) {
+			// A fed tokenizer has no stream to close
+		}
+	}
+
+	/**
+	 * Get the tokenizer, for the text and the numbers of the tokens read by {@link #nextToken()}.
+	 *
+	 * @return The tokenizer.
+	 */
+	public JsonTokenizer getTokenizer() {
+		return tokenizer;
+	}
+
+}
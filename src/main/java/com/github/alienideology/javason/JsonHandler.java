@@ -0,0 +1,55 @@
+package com.github.alienideology.javason;
+
+/**
+ * A handler for parsing json without building any {@link JsonObject} or {@link JsonArray}.
+ * The methods are invoked by {@link JsonParser#parse(JsonHandler)} in the order of the json.
+ * Numbers are passed as primitives whenever possible, so no boxing happens.
+ * All methods do nothing by default.
+ *
+ * @author AlienIdeology
+ */
+public interface JsonHandler {
+
+	default void startObject() {}
+
+	default void endObject() {}
+
+	default void startArray() {}
+
+	default void endArray() {}
+
+	/**
+	 * Invoked for a key of an object. The value of the key is passed to the next invocation.
+	 *
+	 * @param key The string key.
+	 */
+	default void key(String key) {}
+
+	default void stringValue(String value) {}
+
+	/**
+	 * Invoked for integers which fit in a long.
+	 *
+	 * @param value The integer.
+	 */
+	default void numberValue(long value) {}
+
+	/**
+	 * Invoked for decimals which fit in a double.
+	 *
+	 * @param value The decimal.
+	 */
+	default void numberValue(double value) {}
+
+	/**
+	 * Invoked for numbers larger than a long or a double.
+	 *
+	 * @param value The {@link java.math.BigInteger} or {@link java.math.BigDecimal}.
+	 */
+	default void numberValue(Number value) {}
+
+	default void booleanValue(boolean value) {}
+
+	default void nullValue() {}
+
+}
@@ -0,0 +1,205 @@
+package com.github.alienideology.javason;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * A reader for UTF-8 files of newline-delimited json objects (NDJSON or JSON Lines), one object per line.
+ * The file is memory-mapped, see {@link JsonTokenizer#JsonTokenizer(Path)}.
+ * <p>
+ * Since json strings cannot contain raw newlines, the file is split into ranges at newlines,
+ * so a parallel {@link #stream()} parses the ranges in the {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+ * Blank lines are skipped, and syntax errors are thrown with the line number.
+ *
+ * @author AlienIdeology
+ */
+public class JsonLines implements Iterable<JsonObject> {
+
+	private final static int MIN_SPLIT_SIZE = 64*1024; // Ranges smaller than this are not split
+
+	private final ByteRegions regions;
+	private SymbolTable symbols = new SymbolTable();
+	private int maxDepth = JsonTokenizer.DEFAULT_MAX_DEPTH;
+
+	/**
+	 * Construct a reader by the given UTF-8 file.
+	 *
+	 * @param path The path of the file.
+	 * @throws IOException
+	 * 		If an I/O error occurs.
+	 */
+	public JsonLines(Path path) throws IOException {
+		this.regions = new ByteRegions(JsonTokenizer.map(path));
+	}
+
+	/**
+	 * Set the table to intern the keys of the parsed objects with, which is shared by the ranges.
+	 *
+	 * @param symbols The table, or null to not intern keys.
+	 * @return The reader for chaining.
+	 */
+	public JsonLines setSymbolTable(SymbolTable symbols) {
+		this.symbols = symbols;
+		return this;
+	}
+
+	/**
+	 * Set the maximum depth of nested objects and arrays, see {@link JsonTokenizer#setMaxDepth(int)}.
+	 *
+	 * @param maxDepth The maximum depth.
+	 * @return The reader for chaining.
+	 */
+	public JsonLines setMaxDepth(int maxDepth) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("The maximum depth must be positive!");
+		}
+		this.maxDepth = maxDepth;
+		return this;
+	}
+
+	/**
+	 * Get a parallel stream of the objects, in the order of the lines.
+	 *
+	 * @return The stream.
+	 * @throws JsonException
+	 * 		For any syntax errors, when the stream is consumed.
+	 */
+	public Stream<JsonObject> stream() throws JsonException {
+		return stream(true);
+	}
+
+	/**
+	 * Get a parallel stream of the objects.
+	 * An unordered stream may perform better, such as with {@link Stream#forEach(Consumer)} or unordered collectors.
+	 *
+	 * @param ordered True if the stream is in the order of the lines.
+	 * @return The stream.
+	 * @throws JsonException
+	 * 		For any syntax errors, when the stream is consumed.
+	 */
+	public Stream<JsonObject> stream(boolean ordered) throws JsonException {
+		final Stream<JsonObject> stream = StreamSupport.stream(new LineSpliterator(0, regions.length()), true);
+		return ordered ? stream : stream.unordered();
+	}
+
+	/**
+	 * Get an iterator of the objects, which parses the lines sequentially.
+	 *
+	 * @return The iterator.
+	 * @throws JsonException
+	 * 		For any syntax errors, when the iterator is consumed.
+	 */
+	@Override
+	public Iterator<JsonObject> iterator() throws JsonException {
+		return Spliterators.iterator(new LineSpliterator(0, regions.length()));
+	}
+
+	// Lines of a range of the file, which starts at a line
+	private class LineSpliterator implements Spliterator<JsonObject> {
+		private long start;
+		private long position;
+		private final long end;
+		private long line; // Lines read from the start
+		private byte[] scratch = new byte[256]; // The current line
+
+		private LineSpliterator(long start, long end) {
+			this.start = start;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super JsonObject> action) {
+			while (position < end) {
+				final long lineStart = position;
+				final long lineEnd = regions.indexOf((byte) '\n', position, end);
+				position = lineEnd + 1;
+				line++;
+
+				final JsonObject object = parseLine(lineStart, (int) (lineEnd - lineStart));
+				if (object != null) {
+					action.accept(object);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Spliterator<JsonObject> trySplit() {
+			if (end - position < MIN_SPLIT_SIZE) return null;
+			final long split = regions.indexOf((byte) '\n', position + (end - position) / 2, end) + 1;
+			if (split >= end) return null;
+
+			final LineSpliterator prefix = new LineSpliterator(start, split);
+			prefix.position = position;
+			prefix.line = line;
+			start = split;
+			position = split;
+			line = 0;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return (end - position) / 64;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | NONNULL | IMMUTABLE;
+		}
+
+		// Parse the object of the line, or return null if the line is blank
+		private JsonObject parseLine(long index, int length) {
+			if (scratch.length < length) {
+				scratch = new byte[Math.max(length, scratch.length * 2)];
+			}
+			regions.get(index, scratch, 0, length);
+
+			try {
+				final JsonTokenizer tokenizer = new JsonTokenizer(scratch, 0, length);
+				tokenizer.setSymbolTable(symbols);
+				tokenizer.setMaxDepth(maxDepth);
+				JsonToken token = tokenizer.nextToken();
+				if (token == JsonToken.END_DOCUMENT) {
+					return null;
+				} else if (token != JsonToken.START_OBJECT) {
+					throw new JsonException("A Json object must to starts with \"{\"!");
+				}
+
+				final TreeBuilder builder = new TreeBuilder();
+				while (!builder.add(tokenizer, token)) {
+					token = tokenizer.nextToken();
+				}
+				for (int i = (int) tokenizer.getTokenOffset() + 1; i < length; i++) {
+					final byte b = scratch[i];
+					if (b != ' ' && b != '\t' && b != '\r') {
+						throw new JsonException("Unexpected char \"" + (char) b + "\" after the object at index: " + i);
+					}
+				}
+				return (JsonObject) builder.getValue();
+			} catch (JsonException e) {
+				throw new JsonException("Line " + lineNumber() + ": " + e.getMessage(), e);
+			}
+		}
+
+		// The line number of the current line, counting the lines before the range only when there is an error
+		private long lineNumber() {
+			long lines = line;
+			for (long i = 0; i < start; i = regions.indexOf((byte) '\n', i, start) + 1) {
+				lines++;
+			}
+			return lines;
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package com.github.alienideology.javason;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * A json number which keeps its text, see {@link JsonParser#setLazyNumbers(boolean)}.
+ * The text is only converted when the number is read, and the conversion is cached.
+ * The number is written as its text, so it is written exactly as it was parsed.
+ * <p>
+ * {@link #getValue()} has the type {@link Javason#getNumberFromString(String)} would give the text,
+ * and {@link #bigDecimalValue()} is exact for any number.
+ * Two json numbers are equal if they have the same text.
+ *
+ * @author AlienIdeology
+ */
+public final class JsonNumber extends Number {
+
+	private final static long serialVersionUID = 1L;
+
+	private final String text;
+	private transient Number value; // Nullable until converted
+	private transient BigDecimal decimal; // Nullable until converted
+
+	/**
+	 * Create a json number from its text.
+	 *
+	 * @param text The json text of the number.
+	 * @throws NumberFormatException
+	 * 		If the text is not a json number, or if its exponent is out of the range of a {@link BigDecimal}.
+	 */
+	public JsonNumber(String text) throws NumberFormatException {
+		this.value = Javason.getNumberFromString(text); // Also rejects exponents which do not fit in a big decimal
+		this.text = text;
+	}
+
+	// The current number token, which is already validated
+	JsonNumber(JsonTokenizer tokenizer) throws JsonException {
+		tokenizer.checkNumberRange();
+		this.text = tokenizer.getText();
+	}
+
+	/**
+	 * Get the number converted from the text, which is cached.
+	 * Integers are an {@link Integer}, a {@link Long}, or a {@link BigInteger} if they do not fit in a long.
+	 * Decimals are a {@link Double}, or a {@link BigDecimal} if they do not fit in a double.
+	 *
+	 * @return The number.
+	 */
+	public Number getValue() {
+		if (value == null) {
+			value = convert();
+		}
+		return value;
+	}
+
+	/**
+	 * Get the exact number, which is cached.
+	 *
+	 * @return The big decimal.
+	 */
+	public BigDecimal bigDecimalValue() {
+		if (decimal == null) {
+			decimal = new BigDecimal(text);
+		}
+		return decimal;
+	}
+
+	/**
+	 * Get the number as a big integer, without the fraction.
+	 *
+	 * @return The big integer.
+	 */
+	public BigInteger bigIntegerValue() {
+		final Number value = getValue();
+		if (value instanceof BigInteger) {
+			return (BigInteger) value;
+		} else if (value instanceof Integer || value instanceof Long) {
+			return BigInteger.valueOf(value.longValue());
+		}
+		return bigDecimalValue().toBigInteger();
+	}
+
+	@Override
+	public int intValue() {
+		return getValue().intValue();
+	}
+
+	@Override
+	public long longValue() {
+		return getValue().longValue();
+	}
+
+	@Override
+	public float floatValue() {
+		return getValue().floatValue();
+	}
+
+	@Override
+	public double doubleValue() {
+		return getValue().doubleValue();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return this == obj || (obj instanceof JsonNumber && text.equals(((JsonNumber) obj).text));
+	}
+
+	@Override
+	public int hashCode() {
+		return text.hashCode();
+	}
+
+	/**
+	 * Get the text of the number, as it is in the json.
+	 *
+	 * @return The text.
+	 */
+	@Override
+	public String toString() {
+		return text;
+	}
+
+	// Same types as JsonTokenizer#getNumber
+	private Number convert() {
+		boolean integral = true;
+		int digits = 0;
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c == '.' || c == 'e' || c == 'E') {
+				integral = false;
+				break;
+			} else if (c != '-') {
+				digits++;
+			}
+		}
+
+		if (integral && digits <= 18) {
+			final long longValue = Long.parseLong(text);
+			return longValue == (int) longValue ? (Number) (int) longValue : (Number) longValue;
+		} else if (integral) {
+			final BigInteger bigInteger = new BigInteger(text);
+			return bigInteger.bitLength() < 64 ? (Number) bigInteger.longValue() : bigInteger;
+		}
+		final double doubleValue = Double.parseDouble(text);
+		return Double.isInfinite(doubleValue) ? bigDecimalValue() : (Number) doubleValue;
+	}
+
+}
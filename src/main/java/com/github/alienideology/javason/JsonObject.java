@@ -2,31 +2,43 @@ package com.github.alienideology.javason;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.Map.Entry;
+import java.util.function.BiConsumer;
 
 import com.github.alienideology.javason.exception.InvalidTypeException;
 import com.github.alienideology.javason.exception.JsonException;
 
 /**
  * An object for the json file format.
- * The object is constructed base on map(key and value pairs).
+ * The object is constructed base on map(key and value pairs), which keeps the insertion order of the keys.
+ * <p>
+ * Two json objects are equal if they have equal pairs, in any order.
+ * A json object can be frozen by {@link #freeze()}, then it is shared by threads as a read only object.
  * 
  * @author AlienIdeology
  */
 @SuppressWarnings({"unused", "WeakerAccess"})
 public class JsonObject {
 	
-	private final HashMap<String, Object> pairs;
+	private final CompactMap pairs;
+	
+	private volatile boolean frozen;
+	private String json; // Nullable, toString() of a frozen object, cached when it is first built
+	private int hash; // hashCode() of a frozen object, 0 until it is first computed
 	
 	/**
 	 * Creates an empty JsonObject.	
 	 */
 	public JsonObject() {
-		pairs = new HashMap<>();
+		pairs = new CompactMap();
 	}
 	
 	/**
@@ -35,7 +47,7 @@ public class JsonObject {
 	 * @param json The json source.
 	 */
 	public JsonObject(String json) {
-		pairs = new JsonParser(json).parseObject().getAsMap();
+		pairs = new JsonParser(json).parseObject().pairs;
 	}
 	
 	/**
@@ -44,7 +56,12 @@ public class JsonObject {
 	 * @param pairs The map, with keys(String) and values(Object).
 	 */
 	public JsonObject(Map<String, Object> pairs) {
-		this.pairs = new HashMap<>(pairs);
+		this.pairs = new CompactMap(pairs);
+	}
+	
+	// Take the pairs without copying
+	JsonObject(CompactMap pairs) {
+		this.pairs = pairs;
 	}
 	
 	/**
@@ -83,7 +100,7 @@ public class JsonObject {
 			return new JsonArray().add(this);
 		} else {
 			JsonArray array = new JsonArray();
-			for (Object obj : pairs.values()) {
+			for (Object obj : getAsMap().values()) {
 				array.add(obj);
 			}
 			return array;
@@ -105,9 +122,10 @@ public class JsonObject {
 	 * Get the integer value from a given key.
 	 * Possible conversions:
 	 * <ul>
+	 * 		<li>If the value is a {@link JsonNumber}, then its {@link JsonNumber#getValue()} will be converted.</li>
 	 * 		<li>If the value is a {@link Long}, then it will be converted to integer using {@link Math#toIntExact(long)}.</li>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using {@link Number#intValue()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Integer#parseInt(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Integer#parseInt(String)}.</li>
 	 * </ul>
 	 * 
 	 * @param key The string key.
@@ -118,15 +136,18 @@ public class JsonObject {
 	 * 		If the value is not listed above, or if the {@link String} cannot be converted to an {@link Integer}. See {@link NumberFormatException}.
 	 */
 	public int getInt(String key) throws JsonException, InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
+		if (val instanceof JsonNumber) {
+			val = ((JsonNumber) val).getValue();
+		}
 		// TODO: Contents below should be in Javason with static access
 		if (val instanceof Long) {
 			return Math.toIntExact((Long) val);
 		} else if (val instanceof Number) {
 			return ((Number) val).intValue();
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Integer.parseInt((String) val);
+				return Integer.parseInt(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Integer.class, String.class);
 			}
@@ -159,7 +180,7 @@ public class JsonObject {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using {@link Number#doubleValue()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Double#parseDouble(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Double#parseDouble(String)}.</li>
 	 * </ul>
 	 * 
 	 * @param key The string key.
@@ -170,12 +191,12 @@ public class JsonObject {
 	 * 		If the value is not listed above, or if the {@link String} cannot be converted to an {@link Double}. See {@link NumberFormatException}.
 	 */
 	public double getDouble(String key) throws JsonException, InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		if (val instanceof Number) {
 			return ((Number) val).doubleValue();
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Double.parseDouble((String) val);
+				return Double.parseDouble(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Double.class, String.class);
 			}
@@ -208,7 +229,7 @@ public class JsonObject {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using {@link Number#floatValue()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Float#parseFloat(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Float#parseFloat(String)}.</li>
 	 * </ul>
 	 * 
 	 * @param key The string key.
@@ -219,12 +240,12 @@ public class JsonObject {
 	 * 		If the value is not listed above, or if the {@link String} cannot be converted to an {@link Float}. See {@link NumberFormatException}.
 	 */
 	public float getFloat(String key) throws JsonException, InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		if (val instanceof Number) {
 			return ((Number) val).floatValue();
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Float.parseFloat((String) val);
+				return Float.parseFloat(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Float.class, String.class);
 			}
@@ -257,7 +278,7 @@ public class JsonObject {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using {@link Number#longValue()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Long#parseLong(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Long#parseLong(String)}.</li>
 	 * </ul>
 	 * 
 	 * @param key The string key.
@@ -268,12 +289,12 @@ public class JsonObject {
 	 * 		If the value is not listed above, or if the {@link String} cannot be converted to an {@link Long}. See {@link NumberFormatException}.
 	 */
 	public long getLong(String key) throws JsonException, InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		if (val instanceof Number) {
 			return ((Number) val).longValue();
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Long.parseLong((String) val);
+				return Long.parseLong(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Long.class, String.class);
 			}
@@ -306,7 +327,7 @@ public class JsonObject {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Number}, return.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Javason#getNumberFromString(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Javason#getNumberFromString(String)}.</li>
 	 * </ul>
 	 * 
 	 * @param key The string key.
@@ -318,11 +339,11 @@ public class JsonObject {
 	 */
 	// Nullable
 	public Number getNum(String key) throws NumberFormatException,  InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		if (val instanceof Number) {
 			return (Number) val;
-		} else if (val instanceof String) {
-			return Javason.getNumberFromString((String) val);
+		} else if (val instanceof CharSequence) {
+			return Javason.getNumberFromString(val.toString());
 		} else if (val == null) {
 			return null;
 		} else {
@@ -335,9 +356,10 @@ public class JsonObject {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link BigInteger}, return.</li>
+	 * 		<li>If the value is a {@link JsonNumber}, then it will be converted using {@link JsonNumber#bigIntegerValue()}.</li>
 	 * 		<li>If the value if a {@link BigDecimal}, then it will be converted using {@link BigDecimal#toBigIntegerExact()}.</li>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using the {@link BigInteger(String)} constructor and {@link Number#toString()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using the {@link BigInteger(String)} constructor.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using the {@link BigInteger(String)} constructor.</li>
 	 * </ul>
 	 * 
 	 * @param key The string key.
@@ -347,16 +369,18 @@ public class JsonObject {
 	 */
 	// Nullable
 	public BigInteger getBigInteger(String key) throws InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		if (val instanceof BigInteger) {
 			return (BigInteger) val;
+		} else if (val instanceof JsonNumber) {
+			return ((JsonNumber) val).bigIntegerValue();
 		} else if (val instanceof BigDecimal) {
 			return ((BigDecimal) val).toBigIntegerExact();
 		} else if (val instanceof Number) {
 			return new BigInteger(val.toString());
-		} else  if (val instanceof String) {
+		} else  if (val instanceof CharSequence) {
 			try {
-				return new BigInteger((String) val);
+				return new BigInteger(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(BigInteger.class, String.class);
 			}
@@ -372,9 +396,10 @@ public class JsonObject {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link BigDecimal}, return.</li>
+	 * 		<li>If the value is a {@link JsonNumber}, then it will be converted exactly using {@link JsonNumber#bigDecimalValue()}.</li>
 	 * 		<li>If the value if a {@link BigInteger}, then it will be converted using {@link BigDecimal#valueOf(double)} and {@link BigInteger#doubleValue()}.</li>
 	 * 		<li>If the value is a {@link Number}, then it will be converted using the {@link BigDecimal(String)} constructor and {@link Number#toString()}.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using the {@link BigDecimal(String)} constructor.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using the {@link BigDecimal(String)} constructor.</li>
 	 * </ul>
 	 * 
 	 * @param key The string key.
@@ -384,16 +409,18 @@ public class JsonObject {
 	 */
 	// Nullable
 	public BigDecimal getBigDecimal(String key) throws InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		if (val instanceof BigDecimal) {
 			return (BigDecimal) val;
+		} else if (val instanceof JsonNumber) {
+			return ((JsonNumber) val).bigDecimalValue();
 		} else if (val instanceof BigInteger) {
 			return BigDecimal.valueOf(((BigInteger) val).doubleValue());
 		} else if (val instanceof Number) {
 			return new BigDecimal(val.toString());
-		} else  if (val instanceof String) {
+		} else  if (val instanceof CharSequence) {
 			try {
-				return new BigDecimal((String) val);
+				return new BigDecimal(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(BigDecimal.class, String.class);
 			}
@@ -409,7 +436,7 @@ public class JsonObject {
 	 * Possible conversions:
 	 * <ul>
 	 * 		<li>If the value is a {@link Boolean}, return.</li>
-	 * 		<li>If the value is a {@link String}, then it will be parsed using {@link Boolean#parseBoolean(String)}.</li>
+	 * 		<li>If the value is a {@link String} or a {@link JsonString}, then it will be parsed using {@link Boolean#parseBoolean(String)}.</li>
 	 * </ul>
 	 * 
 	 * @param key The string key.
@@ -420,12 +447,12 @@ public class JsonObject {
 	 * 		If the value is not listed above.
 	 */
 	public boolean getBoolean(String key) throws JsonException, InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		if (val instanceof Boolean) {
 			return (boolean) val;
-		} else if (val instanceof String) {
+		} else if (val instanceof CharSequence) {
 			try {
-				return Boolean.parseBoolean((String) val);
+				return Boolean.parseBoolean(val.toString());
 			} catch (NumberFormatException nfe) {
 				throw new InvalidTypeException(Boolean.class, String.class);
 			}
@@ -462,7 +489,7 @@ public class JsonObject {
 	 * 		If there is no such key existed in the json.
 	 */
 	public String getString(String key) throws JsonException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		if (val == null) {
 			throw new JsonException("There is no string value for the key \"" + key + "\".");
 		}
@@ -479,7 +506,7 @@ public class JsonObject {
 	 */
 	// Nullable
 	public JsonObject getObject(String key) throws InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		
 		if (val instanceof JsonObject) {
 			return (JsonObject) val;
@@ -500,7 +527,7 @@ public class JsonObject {
 	 */
 	// Nullable
 	public JsonArray getArray(String key) throws InvalidTypeException {
-		Object val = pairs.get(key);
+		Object val = get(key);
 		
 		if (val instanceof JsonArray) {
 			return (JsonArray) val;
@@ -528,7 +555,7 @@ public class JsonObject {
 	 * @return True if the json object contains the key, and the value is not {@code null}.
 	 */
 	public boolean notNull(String key) {
-		return contains(key) && pairs.get(key) != null;
+		return contains(key) && get(key) != null;
 	}
 	
 	/**
@@ -541,6 +568,7 @@ public class JsonObject {
 	 * 		If the object is a {@link Double} or {@link Float}, and the number is not valid. See {@link Javason#isNumberValid(Number)}.
 	 */
 	public JsonObject put(String key, Object value) throws IllegalArgumentException {
+		checkNotFrozen();
 		if (value instanceof Number) {
 			Javason.validateNumber((Number) value);
 		}
@@ -670,6 +698,7 @@ public class JsonObject {
 	 * @return The value removed.
 	 */
 	public Object remove(String key) {
+		checkNotFrozen();
 		return pairs.remove(key);
 	}
 	
@@ -681,10 +710,11 @@ public class JsonObject {
 	 */
 	// Nullable
 	public Entry<String, Object> removeByValue(Object value) {
+		checkNotFrozen();
         Iterator<Entry<String, Object>> iterator = pairs.entrySet().iterator();
         while (iterator.hasNext()) {
             Entry<String, Object> key = iterator.next();
-            if (key.getValue().equals(value)) {
+            if (JsonString.equal(key.getValue(), value)) {
                 pairs.remove(key.getKey());
                 return key;
             }
@@ -716,17 +746,77 @@ public class JsonObject {
 	 * @return This JsonObject, easier for chaining.
 	 */
 	public JsonObject clear() {
+		checkNotFrozen();
 		pairs.clear();
 		return this;
 	}
 	
 	/**
-	 * Get the map of pairs in this json object. 
+	 * Get the map of pairs in this json object, in insertion order.
+	 * The map is a view, so changes to the map are changes to this json object.
+	 * The map is unmodifiable if this json object is frozen.
 	 * 
 	 * @return The map.
 	 */
-	public HashMap<String, Object> getAsMap() {
-		return pairs;
+	public Map<String, Object> getAsMap() {
+		return frozen ? Collections.unmodifiableMap(pairs) : pairs;
+	}
+	
+	/**
+	 * Freeze this json object, so it is deeply immutable.
+	 * The json objects and arrays in this object are frozen as well, without copying them,
+	 * and methods which modify a frozen object throw {@link UnsupportedOperationException}s.
+	 * The {@link #hashCode()} and {@link #toString()} of a frozen object are cached.
+	 * <p>
+	 * Freezing visits the whole tree once, and lazily parsed values are parsed.
+	 * Freezing a frozen object takes O(1).
+	 * 
+	 * @return This JsonObject, easier for chaining.
+	 */
+	public JsonObject freeze() {
+		if (!frozen) freeze(this);
+		return this;
+	}
+	
+	/**
+	 * Check if this json object is frozen, see {@link #freeze()}.
+	 * 
+	 * @return True if the json object is frozen.
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (!(obj instanceof JsonObject)) {
+			return false;
+		}
+		final JsonObject other = (JsonObject) obj;
+		if (frozen && other.frozen && hash != 0 && other.hash != 0 && hash != other.hash) {
+			return false;
+		}
+		if (size() != other.size()) {
+			return false;
+		}
+		for (Entry<String, Object> pair : getAsMap().entrySet()) {
+			if (!other.contains(pair.getKey()) || !JsonString.equal(pair.getValue(), other.get(pair.getKey()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public int hashCode() {
+		if (hash != 0) {
+			return hash;
+		}
+		final int hash = getAsMap().hashCode();
+		if (frozen) this.hash = hash;
+		return hash;
 	}
 
 	/**
@@ -749,19 +839,31 @@ public class JsonObject {
 		return toString(indent, 1);
 	}
 	
+	// Visit the pairs in order, subclasses which keep the pairs elsewhere override this
+	void forEachPair(BiConsumer<String, Object> action) {
+		for (int i = 0; i < pairs.size(); i++) {
+			action.accept(pairs.keyAt(i), pairs.valueAt(i));
+		}
+	}
+	
 	// layer: starting from 1
 	String toString(int indent, int layer) {
+		if (indent == 0 && json != null) { // Not indented, so the layer does not change the string
+			return json;
+		}
 		final boolean indented = indent != 0;
 		/* Opening Parenthesis */
 		final StringBuilder builder = new StringBuilder("{");
 		
-		if (pairs.isEmpty()) {
+		if (isEmpty()) {
 			return builder.append("}").toString();
 		}
 		
 		/* Content */
-		int indexC = 0; // Used to count index
-		for (String key : pairs.keySet()) {
+		forEachPair((key, val) -> {
+			if (builder.length() > 1) { // After the previous pair
+				builder.append(",");
+			}
 			if (indented) {
 				builder.append("\n");
 				for (int i = 0; i < indent * layer; i++) {
@@ -769,7 +871,7 @@ public class JsonObject {
 				}
 			}
 			
-			builder.append("\"").append(key).append("\"");
+			builder.append("\"").append(Javason.escape(key)).append("\"");
 			
 			if (indented) {
 				builder.append(" : ");
@@ -777,9 +879,10 @@ public class JsonObject {
 				builder.append(":");
 			}
 			
-			final Object val = pairs.get(key);
-			if (val instanceof String) {
-				builder.append("\"").append(val).append("\""); 
+			if (val instanceof JsonString) {
+				builder.append("\"").append(((JsonString) val).raw()).append("\"");
+			} else if (val instanceof String) {
+				builder.append("\"").append(Javason.escape((String) val)).append("\""); 
 			} else if (val instanceof JsonObject) {
 				builder.append(((JsonObject) val).toString(indent, layer+1));
 			} else if (val instanceof JsonArray) {
@@ -787,19 +890,79 @@ public class JsonObject {
 			} else {
 				builder.append(val);
 			}
-			
-			if (indexC != pairs.size() - 1) { // Ignore last element
-				builder.append(",");
-			}
-			indexC++;
-		}
+		});
 		
 		/* Close Parenthesis */
 		if (indented) builder.append("\n");
 		for (int i = 0; i < indent * (layer - 1); i++) { // layer - 1 because closing parenthesis are one tab before the content indent
 			builder.append(" ");
 		}
-		return builder.append("}").toString();
+		final String json = builder.append("}").toString();
+		if (frozen && !indented) this.json = json;
+		return json;
+	}
+	
+	private void checkNotFrozen() throws UnsupportedOperationException {
+		if (frozen) {
+			throw new UnsupportedOperationException("The JSON object is frozen!");
+		}
+	}
+	
+	// Parse the values which are parsed on demand, lazy objects override this
+	void load() {
+	}
+	
+	// Set the flag once the values are frozen
+	void markFrozen() {
+		frozen = true;
+	}
+	
+	// Freeze the json objects and arrays in the tree of the value, in a stack instead of the call stack.
+	// Lazy values are parsed first, and the flags are only set after the whole tree is visited,
+	// so a value is never seen frozen while its children are mutable
+	static void freeze(Object root) {
+		final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>()); // Shared or cyclic values
+		final ArrayList<Object> values = new ArrayList<>();
+		Object[] stack = new Object[16];
+		int depth = 0;
+		stack[depth++] = root;
+		while (depth > 0) {
+			final Object value = stack[--depth];
+			stack[depth] = null;
+			if ((value instanceof JsonObject && ((JsonObject) value).frozen)
+					|| (value instanceof JsonArray && ((JsonArray) value).isFrozen()) || !visited.add(value)) {
+				continue;
+			}
+			values.add(value);
+			
+			final ArrayList<Object> children = new ArrayList<>();
+			if (value instanceof JsonObject) {
+				final JsonObject object = (JsonObject) value;
+				object.load();
+				object.forEachPair((key, val) -> {
+					if (val instanceof JsonObject || val instanceof JsonArray) children.add(val);
+				});
+			} else {
+				final JsonArray array = (JsonArray) value;
+				array.load();
+				array.forEachContainer(children::add);
+			}
+			if (depth + children.size() > stack.length) {
+				stack = Arrays.copyOf(stack, Math.max(stack.length * 2, depth + children.size()));
+			}
+			for (Object child : children) {
+				stack[depth++] = child;
+			}
+		}
+		
+		for (int i = values.size() - 1; i >= 0; i--) { // The root is the last
+			final Object value = values.get(i);
+			if (value instanceof JsonObject) {
+				((JsonObject) value).markFrozen();
+			} else {
+				((JsonArray) value).markFrozen();
+			}
+		}
 	}
 	
 }
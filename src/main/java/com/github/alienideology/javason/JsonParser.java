@@ -1,93 +1,163 @@
 package com.github.alienideology.javason;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
 import com.github.alienideology.javason.exception.JsonException;
 
 /**
  * A Parser for parsing json strings into {@link JsonObject} and/or {@link JsonArray}.
- * 
+ * The parser builds the values from the tokens of a {@link JsonTokenizer}.
+ * <p>
+ * A parser can be reset to parse another json, reusing its buffer, so a parser kept by each worker only allocates the parsed values.
+ * Otherwise, a closed parser returns its buffer to a pool shared by the threads, to be reused by the next parser.
+ *
  * @author AlienIdeology
  */
-public class JsonParser {
-	private final String json;
-	
-	private String seq;
-	private char state;
-	private int cursor;
-	
+public class JsonParser implements Closeable {
+	private final JsonTokenizer tokenizer;
+	private boolean stringViews;
+	private boolean lazyNumbers;
+
 	/**
 	 * Construct a parser by the given json string.
-	 * 
+	 *
 	 * @param json The json string.
 	 */
 	public JsonParser(String json) {
-		this.seq = "";
-		this.json = json == null || json.isEmpty() ? "{}" : json;
-		this.state = json == null || json.isEmpty() ? '{' // Workaround for an empty json object
-				: json.charAt(0);
-		this.cursor = 0;
+		this(interned(new JsonTokenizer(json == null || json.isEmpty() ? "{}" : json))); // Workaround for an empty json object
+	}
+
+	/**
+	 * Construct a parser by a range of the given chars, without copying them.
+	 *
+	 * @param json The json chars.
+	 * @param offset The index of the first char of the json.
+	 * @param length The amount of chars of the json.
+	 */
+	public JsonParser(char[] json, int offset, int length) {
+		this(interned(new JsonTokenizer(json, offset, length)));
 	}
-	
+
+	/**
+	 * Construct a parser by the given char sequence, see {@link JsonTokenizer#JsonTokenizer(CharSequence)}.
+	 *
+	 * @param json The json chars.
+	 */
+	public JsonParser(CharSequence json) {
+		this(interned(new JsonTokenizer(json)));
+	}
+
 	/**
 	 * Construct a parser by a given reader.
-	 * 
+	 * The reader is tokenized as the values are parsed, without reading the whole json first.
+	 *
 	 * @param reader The reader.
 	 * @throws IOException
 	 * 		If an I/O error occurs.
 	 */
 	public JsonParser(Reader reader) throws IOException {
-		char[] arr = new char[8*1024]; // 8K at a time
-  		final StringBuilder buf = new StringBuilder();
-  		int numChars;
-
-  		while ((numChars = reader.read(arr, 0, arr.length)) > 0) {
-	  		buf.append(arr, 0, numChars);
-  		}
-  		String json = buf.toString();
+		this(interned(new JsonTokenizer(reader)));
+	}
 
-  		this.seq = "";
-		this.json = json.isEmpty() ? "{}" : json;
-		this.state = json.isEmpty() ? '{' // Workaround for an empty json object
-				: json.charAt(0);
-		this.cursor = 0;
+	/**
+	 * Construct a parser by a given tokenizer.
+	 * The symbol table of the tokenizer is used as it is, so keys are not interned if it is null.
+	 *
+	 * @param tokenizer The tokenizer.
+	 */
+	public JsonParser(JsonTokenizer tokenizer) {
+		this.tokenizer = tokenizer;
 	}
-	
+
 	/**
-	 * Construct a parser by the given input stream.
-	 * 
+	 * Construct a parser by the given UTF-8 input stream.
+	 * The bytes are tokenized directly, without an {@link InputStreamReader}.
+	 *
 	 * @param stream The stream.
 	 * @throws IOException
 	 * 		If an I/O error occurs.
 	 */
 	public JsonParser(InputStream stream) throws IOException {
-		this(new InputStreamReader(stream));
+		this(interned(new JsonTokenizer(stream)));
 	}
-	
+
+	/**
+	 * Construct a parser by the given UTF-8 bytes.
+	 *
+	 * @param json The json bytes.
+	 */
+	public JsonParser(byte[] json) {
+		this(interned(new JsonTokenizer(json)));
+	}
+
 	/**
-	 * Construct a parser by the given file.
-	 * 
+	 * Construct a parser by a range of the given UTF-8 bytes.
+	 *
+	 * @param json The json bytes.
+	 * @param offset The index of the first byte of the json.
+	 * @param length The amount of bytes of the json.
+	 */
+	public JsonParser(byte[] json, int offset, int length) {
+		this(interned(new JsonTokenizer(json, offset, length)));
+	}
+
+	/**
+	 * Construct a parser by the remaining UTF-8 bytes of the given buffer.
+	 * The position of the buffer is not changed.
+	 *
+	 * @param json The json buffer.
+	 */
+	public JsonParser(ByteBuffer json) {
+		this(interned(new JsonTokenizer(json)));
+	}
+
+	/**
+	 * Construct a parser by the remaining UTF-8 bytes of the given buffers, as one json.
+	 * See {@link JsonTokenizer#JsonTokenizer(ByteBuffer[])}.
+	 *
+	 * @param json The json buffers.
+	 */
+	public JsonParser(ByteBuffer[] json) {
+		this(interned(new JsonTokenizer(json)));
+	}
+
+	/**
+	 * Construct a parser by the given UTF-8 file.
+	 * The file is memory-mapped, see {@link JsonTokenizer#JsonTokenizer(Path)}.
+	 *
 	 * @param file The file.
 	 * @throws IOException
 	 * 		If an I/O error occurs.
 	 */
 	public JsonParser(File file) throws IOException {
-		this(new FileReader(file));
+		this(file.toPath());
 	}
-	
+
+	/**
+	 * Construct a parser by the given UTF-8 file.
+	 * The file is memory-mapped, see {@link JsonTokenizer#JsonTokenizer(Path)}.
+	 *
+	 * @param path The path of the file.
+	 * @throws IOException
+	 * 		If an I/O error occurs.
+	 */
+	public JsonParser(Path path) throws IOException {
+		this(interned(new JsonTokenizer(path)));
+	}
+
 	/**
 	 * Construct a parser by the given url.
-	 * 
+	 *
 	 * @param url The url.
 	 * @throws IOException
 	 * 		If an I/O error occurs.
@@ -95,226 +165,352 @@ public class JsonParser {
 	public JsonParser(URL url) throws IOException {
 		this(url.openStream());
 	}
-	
+
+	// Keys are interned by the recycled table of the thread, if the tokenizer is created by the parser
+	private static JsonTokenizer interned(JsonTokenizer tokenizer) {
+		tokenizer.setSymbolTable(BufferRecycler.symbols());
+		return tokenizer;
+	}
+
+	/**
+	 * Reset the parser to parse the given json string, see {@link JsonTokenizer#reset(String)}.
+	 *
+	 * @param json The json string.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(String json) {
+		tokenizer.reset(json == null || json.isEmpty() ? "{}" : json); // Workaround for an empty json object
+		return this;
+	}
+
+	/**
+	 * Reset the parser to parse a range of the given chars.
+	 *
+	 * @param json The json chars.
+	 * @param offset The index of the first char of the json.
+	 * @param length The amount of chars of the json.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(char[] json, int offset, int length) {
+		tokenizer.reset(json, offset, length);
+		return this;
+	}
+
+	/**
+	 * Reset the parser to parse the given char sequence.
+	 *
+	 * @param json The json chars.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(CharSequence json) {
+		tokenizer.reset(json);
+		return this;
+	}
+
+	/**
+	 * Reset the parser to parse a given reader.
+	 *
+	 * @param reader The reader.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(Reader reader) {
+		tokenizer.reset(reader);
+		return this;
+	}
+
+	/**
+	 * Reset the parser to parse the given UTF-8 input stream.
+	 *
+	 * @param stream The stream.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(InputStream stream) {
+		tokenizer.reset(stream);
+		return this;
+	}
+
+	/**
+	 * Reset the parser to parse the given UTF-8 bytes.
+	 *
+	 * @param json The json bytes.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(byte[] json) {
+		tokenizer.reset(json);
+		return this;
+	}
+
+	/**
+	 * Reset the parser to parse a range of the given UTF-8 bytes.
+	 *
+	 * @param json The json bytes.
+	 * @param offset The index of the first byte of the json.
+	 * @param length The amount of bytes of the json.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(byte[] json, int offset, int length) {
+		tokenizer.reset(json, offset, length);
+		return this;
+	}
+
+	/**
+	 * Reset the parser to parse the remaining UTF-8 bytes of the given buffer.
+	 *
+	 * @param json The json buffer.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(ByteBuffer json) {
+		tokenizer.reset(json);
+		return this;
+	}
+
+	/**
+	 * Reset the parser to parse the remaining UTF-8 bytes of the given buffers.
+	 *
+	 * @param json The json buffers.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser reset(ByteBuffer[] json) {
+		tokenizer.reset(json);
+		return this;
+	}
+
+	/**
+	 * Set the maximum depth of nested objects and arrays, see {@link JsonTokenizer#setMaxDepth(int)}.
+	 * Objects and arrays are built without recursion, so the depth is not limited by the stack size of the thread.
+	 *
+	 * @param maxDepth The maximum depth.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser setMaxDepth(int maxDepth) {
+		tokenizer.setMaxDepth(maxDepth);
+		return this;
+	}
+
+	/**
+	 * Set the table to intern the keys of the parsed objects with.
+	 * By default, parsers share a fixed amount of tables, by the threads which construct them.
+	 * A shared table which is full, while most keys are not found, such as ids which are never repeated,
+	 * is replaced by an empty table for the next parsers.
+	 *
+	 * @param symbols The table, or null to not intern keys.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser setSymbolTable(SymbolTable symbols) {
+		tokenizer.setSymbolTable(symbols);
+		return this;
+	}
+
+	/**
+	 * Set if string values are parsed as {@link JsonString} views of the json, instead of {@link String}.
+	 * A view is only decoded when it is converted to a string, and is written without being decoded,
+	 * which saves the decoding of strings which are never read or are only written again.
+	 * Lazily parsed values are not affected.
+	 *
+	 * @param stringViews True to parse string values as views.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser setStringViews(boolean stringViews) {
+		this.stringViews = stringViews;
+		return this;
+	}
+
+	/**
+	 * Set if number values are parsed as {@link JsonNumber}s, which keep the text of the numbers, instead of being converted.
+	 * A number is only converted when it is read, and is written as it was parsed,
+	 * so numbers which are only written again are not changed, nor converted.
+	 * A number with an exponent out of the range of a {@link java.math.BigDecimal} still throws while parsing.
+	 * Lazily parsed values are not affected, and arrays of lazy numbers are not kept unboxed.
+	 *
+	 * @param lazyNumbers True to parse number values as {@link JsonNumber}s.
+	 * @return The parser for chaining.
+	 */
+	public JsonParser setLazyNumbers(boolean lazyNumbers) {
+		this.lazyNumbers = lazyNumbers;
+		return this;
+	}
+
+	/**
+	 * Get the table to intern the keys of the parsed objects with.
+	 *
+	 * @return The table, or null if keys are not interned.
+	 */
+	// Nullable
+	public SymbolTable getSymbolTable() {
+		return tokenizer.getSymbolTable();
+	}
+
 	/**
 	 * Parse an object from the json string.
-	 * 
+	 *
 	 * @return The parsed object.
 	 * @throws JsonException
 	 * 		For any syntax errors.
 	 */
 	public JsonObject parseObject() throws JsonException {
-		if (state != '{') {
+		final JsonToken token = tokenizer.nextToken();
+		if (token == JsonToken.END_DOCUMENT) { // Workaround for an empty json object
+			return new JsonObject();
+		} else if (token != JsonToken.START_OBJECT) {
 			throw new JsonException("A Json object must to starts with \"{\"!");
 		}
-		
-		read(1);
-		
-		final HashMap<String, Object> pairs = new HashMap<>();
-		while (state != '}') {
-			final String key = parseKey();
-			System.out.println("Key: " + key);
-			
-			// Json Object, read until ":"
-			readUntil(':');
-			
-			do { // Read one more char, then check white spaces
-				reset(); // Reset value since we don't need the spaces
-				read(1);
-			} while (state == ' ' || state == '\t'); // Ignore white spaces between ":" and the value
-			
-			final Object value = parseValue(true);
-			System.out.println("Value: " + value);
-			pairs.put(key, value);
-			
-			
-		}
-		
-		return new JsonObject(pairs);
+		return readObject();
 	}
-	
+
 	/**
 	 * Parse an array from the json string.
-	 * 
+	 *
 	 * @return The parsed array.
 	 * @throws JsonException
 	 * 		For any syntax errors.
 	 */
-	public JsonArray parseArray() {
-		if (state != '[') {
+	public JsonArray parseArray() throws JsonException {
+		if (tokenizer.nextToken() != JsonToken.START_ARRAY) {
 			throw new JsonException("A Json array must to starts with \"[\"!");
 		}
-		
-		reset(); // Reset "["
-		read(1);
-		
-		final List<Object> array = new ArrayList<>();
-		while (state != ']') {
-			while (state == ' ' || state == '\t' || state == ',') { // Ignore white spaces between "," or "[" and the value
-				reset(); // Reset value since we don't need the spaces
-				read(1);
-			}
-			
-			final Object value = parseValue(false);
-			System.out.println("Value: " + value);
-			array.add(value);
+		return readArray();
+	}
+
+	/**
+	 * Parse an object from the json string lazily.
+	 * Only the offsets of the values are recorded when they are first accessed, and each value is parsed when it is accessed,
+	 * so values which are never accessed are never built. Nested objects and arrays are also parsed lazily.
+	 * The whole json is kept in memory, even when it is read from a reader or a stream.
+	 * Syntax errors within the object may only be thrown when the values are accessed.
+	 *
+	 * @return The lazily parsed object.
+	 * @throws JsonException
+	 * 		If the json string does not start with an object.
+	 */
+	public JsonObject parseLazyObject() throws JsonException {
+		tokenizer.readFully();
+		final JsonToken token = tokenizer.nextToken();
+		if (token == JsonToken.END_DOCUMENT) { // Workaround for an empty json object
+			return new JsonObject();
+		} else if (token != JsonToken.START_OBJECT) {
+			throw new JsonException("A Json object must to starts with \"{\"!");
 		}
-		return new JsonArray(array);
-	}
-	
-	private String parseKey() {
-		if (state != '\"')
-			readUntil('\"');
-		reset();
-		readUntil('\"');
-		String key = seq.substring(0, seq.length() - 1);
-		reset();
-		return key;
-	}
-	
-	// Parse general value for json objects and arrays
-	// At the end, the state should either be "}", "]", or ","
-	private Object parseValue(boolean isObj) {
-		Object result;
-		switch (state) {
-			case '{': {
-				result = parseObject(); 
-				break;
-			}
-			case '[': {
-				result = parseArray(); 
-				break;
-			}
-				
-			case '\"': {
-				result = parseString();
-				break;
-			}
-				
-			case '0': 
-			case '1': 
-			case '2': 
-			case '3': 
-			case '4': 
-			case '5': 
-			case '6': 
-			case '7': 
-			case '8':
-			case '9':
-			case '.': {
-				result = parseNum();
-				break;
-			}
-				
-			case 't': {
-				read(3); // t + rue
-				if (seq.equalsIgnoreCase("true")) {
-					result = Boolean.TRUE;
+		return new LazyJsonObject(new JsonTokenizer(tokenizer, 0), tokenizer.getTokenIndex()); // Detached, since the parser may be reset
+	}
+
+	/**
+	 * Parse an array from the json string lazily.
+	 * See {@link #parseLazyObject()} for how the array is parsed.
+	 *
+	 * @return The lazily parsed array.
+	 * @throws JsonException
+	 * 		If the json string does not start with an array.
+	 */
+	public JsonArray parseLazyArray() throws JsonException {
+		tokenizer.readFully();
+		if (tokenizer.nextToken() != JsonToken.START_ARRAY) {
+			throw new JsonException("A Json array must to starts with \"[\"!");
+		}
+		return new LazyJsonArray(new JsonTokenizer(tokenizer, 0), tokenizer.getTokenIndex()); // Detached, since the parser may be reset
+	}
+
+	/**
+	 * Parse the json string by invoking the handler in the order of the json,
+	 * without building any {@link JsonObject} or {@link JsonArray}.
+	 *
+	 * @param handler The handler.
+	 * @throws JsonException
+	 * 		For any syntax errors.
+	 */
+	public void parse(JsonHandler handler) throws JsonException {
+		JsonToken token;
+		while ((token = tokenizer.nextToken()) != JsonToken.END_DOCUMENT) {
+			switch (token) {
+				case START_OBJECT:
+					handler.startObject();
 					break;
-				} else {
-					read(-3);
-				}
-			} 
-			case 'f': {
-				read(4);
-				if (seq.equalsIgnoreCase("false")) {
-					result = Boolean.FALSE;
+				case END_OBJECT:
+					handler.endObject();
 					break;
-				} else {
-					read(-3);
-				}
-			}
-			
-			case 'n': {
-				read(3);
-				if (seq.equalsIgnoreCase("null")) {
-					result = null;
+				case START_ARRAY:
+					handler.startArray();
 					break;
-				} else {
-					read(-4);
-				}
-			} 
-			case ' ': {
-				read(1);
-				result = parseValue(isObj);
-				break;
-			}
-			case '}':
-			case ']': {
-				throw new JsonException("Reached end of the json string without a value!");
-			}
-			default: {
-				throw new JsonException("Unknown character \"" + state + "\" at index: " + cursor);
+				case END_ARRAY:
+					handler.endArray();
+					break;
+				case KEY:
+					handler.key(tokenizer.getText());
+					break;
+				case STRING:
+					handler.stringValue(tokenizer.getText());
+					break;
+				case NUMBER:
+					switch (tokenizer.getNumberType()) {
+						case INT:
+						case LONG:
+							handler.numberValue(tokenizer.getLong());
+							break;
+						case DOUBLE:
+							handler.numberValue(tokenizer.getDouble());
+							break;
+						case BIG_INTEGER:
+							handler.numberValue(new BigInteger(tokenizer.getText()));
+							break;
+						default:
+							handler.numberValue(new BigDecimal(tokenizer.getText()));
+					}
+					break;
+				case TRUE:
+					handler.booleanValue(true);
+					break;
+				case FALSE:
+					handler.booleanValue(false);
+					break;
+				case NULL:
+					handler.nullValue();
+					break;
+				default:
+					throw new JsonException("Unexpected token " + token + " at index: " + tokenizer.getTokenOffset());
 			}
 		}
-		
-		// Make it so that the state will be "}", "]", or "," after parsing value.
-		if (isObj) {
-			readUntil(',', '}');
-		} else {
-			readUntil(',', ']');
-		}
-		
-		return result;
-	}
-	
-	private String parseString() {
-		reset();
-		readUntil('\"');
-		return seq.substring(0, seq.length() - 1); // Seq contains the last ", so substring to ignore it
-	}
-	
-	private Number parseNum() {
-		do {
-			read(1);
-		} while (Character.isDigit(state) || state == '.');
-		read(-1); // Above loop will read 1 more char than expected
-		try {
-			return Javason.getNumberFromString(seq);
-		} catch (NumberFormatException nfe) {
-			throw new JsonException("Encountered an invalid number: " + seq);
-		}
 	}
-	
-	private void read(int amount) {
-		if (cursor + amount > json.length()) {
-			throw new JsonException("Reach end of the json string while parsing process is still going!");
-		}
-		
-		if (amount > 0) {
-			seq += json.substring(cursor + 1, // Substring to not include the cursor
-					cursor + amount + 1); // Plus one, since substring's upper bound is not included
-		} else if (amount < 0) {
-			seq = seq.substring(0, seq.length() + amount);
-		}
-		state = seq.charAt(seq.length()-1);
-		cursor += amount;
-	}
-	
-	private void readUntil(char... chars) {
-		final int cursor = this.cursor;
-		
-		checker:
-			while (true) {
-				if (!hasNext()) {
-					throw new JsonException("Expecting char(s) " + Arrays.toString(chars) + " to appear after index: " + cursor + ", but it is not found!");
-				}
-				read(1);
-				
-				// Check for multiple alternative chars
-				for (char ch : chars) {
-					if (state == ch) break checker;
-				}
-			}
+
+	/**
+	 * Close the reader or the stream, if any, and return the buffer of the parser to be reused by other parsers.
+	 * The parser can be reused after it is reset.
+	 *
+	 * @throws IOException
+	 * 		If an I/O error occurs.
+	 */
+	@Override
+	public void close() throws IOException {
+		tokenizer.close();
 	}
-	
-	private void reset() {
-		seq = "";
+
+	// The tokenizer is right after "{"
+	private JsonObject readObject() {
+		return (JsonObject) readValue(JsonToken.START_OBJECT);
 	}
-	
-	private boolean hasNext() {
-		return cursor + 1
-				< json.length();
+
+	// The tokenizer is right after "["
+	private JsonArray readArray() {
+		return (JsonArray) readValue(JsonToken.START_ARRAY);
+	}
+
+	// Read the value at the index of a fully read document, objects and arrays are read lazily
+	static Object readLazyValue(JsonTokenizer document, int index) {
+		final JsonTokenizer tokenizer = new JsonTokenizer(document, index);
+		final JsonToken token = tokenizer.nextToken();
+		if (token == JsonToken.START_OBJECT) {
+			return new LazyJsonObject(document, index);
+		} else if (token == JsonToken.START_ARRAY) {
+			return new LazyJsonArray(document, index);
+		}
+		return new JsonParser(tokenizer).readValue(token);
+	}
+
+	// Build the value which starts with the current token, without recursion
+	private Object readValue(JsonToken token) {
+		final TreeBuilder builder = new TreeBuilder(stringViews, lazyNumbers);
+		while (!builder.add(tokenizer, token)) {
+			token = tokenizer.nextToken();
+		}
+		return builder.getValue();
 	}
 
 }
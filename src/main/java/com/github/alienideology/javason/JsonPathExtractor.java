@@ -0,0 +1,282 @@
+package com.github.alienideology.javason;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * Extracts the values matched by JSONPath expressions while tokenizing, without building the rest of the json.
+ * The expressions are compiled once, and the extractor can be used for many jsons.
+ * Objects and arrays which cannot contain a match are skipped by {@link JsonTokenizer#skipChildren()},
+ * and keys are compared in the buffer of the tokenizer, so only the matched values are created.
+ * <p>
+ * Supported expressions start with {@code $}, followed by any of the steps:
+ * <ul>
+ * 		<li>{@code .key} or {@code ['key']}, a value of an object.</li>
+ * 		<li>{@code [0]}, an element of an array.</li>
+ * 		<li>{@code .*} or {@code [*]}, all values of an object, or all elements of an array.</li>
+ * </ul>
+ * For example, {@code $.user.id} and {@code $.items[*].price}.
+ *
+ * @author AlienIdeology
+ */
+public class JsonPathExtractor {
+
+	private final String[] paths;
+	private final Step[][] steps;
+
+	/**
+	 * Construct an extractor by JSONPath expressions.
+	 *
+	 * @param paths The expressions.
+	 * @throws IllegalArgumentException
+	 * 		If an expression is not valid.
+	 */
+	public JsonPathExtractor(String... paths) throws IllegalArgumentException {
+		this.paths = paths.clone();
+		this.steps = new Step[paths.length][];
+		for (int i = 0; i < paths.length; i++) {
+			steps[i] = compile(paths[i]);
+		}
+	}
+
+	/**
+	 * Extract the matched values of a json string.
+	 *
+	 * @param json The json string.
+	 * @param handler The handler of the matches.
+	 * @throws JsonException
+	 * 		For any syntax errors.
+	 */
+	public void extract(String json, MatchHandler handler) throws JsonException {
+		try (JsonTokenizer tokenizer = new JsonTokenizer(json)) { // Returns the pooled buffer
+			extract(tokenizer, handler);
+		} catch (IOException e) {
+			// Closing a String tokenizer cannot throw
+		}
+	}
+
+	/**
+	 * Extract the matched values of UTF-8 json bytes.
+	 *
+	 * @param json The json bytes.
+	 * @param handler The handler of the matches.
+	 * @throws JsonException
+	 * 		For any syntax errors.
+	 */
+	public void extract(byte[] json, MatchHandler handler) throws JsonException {
+		try (JsonTokenizer tokenizer = new JsonTokenizer(json)) { // Returns the pooled buffer
+			extract(tokenizer, handler);
+		} catch (IOException e) {
+			// Closing a byte array tokenizer cannot throw
+		}
+	}
+
+	/**
+	 * Extract the matched values of the next value of a tokenizer.
+	 * The matches are handled in the order of the json.
+	 *
+	 * @param tokenizer The tokenizer.
+	 * @param handler The handler of the matches.
+	 * @throws JsonException
+	 * 		For any syntax errors.
+	 */
+	public void extract(JsonTokenizer tokenizer, MatchHandler handler) throws JsonException {
+		// The positions of the containers which may contain matches, as the amount of matched steps of each path
+		// Container i has the positions levels[i], and its current child has levels[i + 1], -1 if the path does not match
+		int[][] levels = new int[16][];
+		int[] indexes = new int[16]; // Index of the current element of each array
+		int open = 0;
+
+		JsonToken token = tokenizer.nextToken();
+		if (token == JsonToken.END_DOCUMENT) return;
+		levels[0] = new int[paths.length]; // The root matches no steps
+		boolean alive = paths.length > 0;
+
+		while (true) {
+			if (alive) {
+				final int[] positions = levels[open];
+				boolean complete = false;
+				for (int p = 0; p < paths.length; p++) {
+					complete |= positions[p] == steps[p].length;
+				}
+				if (complete) {
+					final TreeBuilder builder = new TreeBuilder();
+					while (!builder.add(tokenizer, token)) {
+						token = tokenizer.nextToken();
+					}
+					final Object value = builder.getValue();
+					for (int p = 0; p < paths.length; p++) {
+						if (positions[p] >= 0) {
+							match(value, p, positions[p], handler);
+						}
+					}
+				} else if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+					open++;
+					if (open == levels.length) {
+						levels = Arrays.copyOf(levels, open * 2);
+						indexes = Arrays.copyOf(indexes, open * 2);
+					}
+					if (levels[open] == null) {
+						levels[open] = new int[paths.length];
+					}
+					indexes[open - 1] = 0;
+				}
+			} else if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+				tokenizer.skipChildren();
+			}
+
+			// Move to the next child of the open containers
+			while (true) {
+				if (open == 0) return;
+				token = tokenizer.nextToken();
+				if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+					open--;
+					continue;
+				}
+
+				final int[] parent = levels[open - 1];
+				final int[] positions = levels[open];
+				final boolean key = token == JsonToken.KEY;
+				final int index = key ? -1 : indexes[open - 1]++;
+				alive = false;
+				for (int p = 0; p < paths.length; p++) {
+					final int position = parent[p];
+					positions[p] = position >= 0 && position < steps[p].length
+							&& (key ? steps[p][position].matches(tokenizer) : steps[p][position].matches(index))
+							? position + 1 : -1;
+					alive |= positions[p] >= 0;
+				}
+				if (key) {
+					token = tokenizer.nextToken();
+				}
+				break;
+			}
+		}
+	}
+
+	// Match the rest of the steps of the path in a built value
+	private void match(Object value, int path, int position, MatchHandler handler) {
+		if (position == steps[path].length) {
+			handler.match(paths[path], value);
+			return;
+		}
+
+		final Step step = steps[path][position];
+		if (value instanceof JsonObject) {
+			final JsonObject object = (JsonObject) value;
+			if (step.key != null) {
+				if (object.contains(step.key)) {
+					match(object.get(step.key), path, position + 1, handler);
+				}
+			} else if (step.index < 0) {
+				for (Object child : object.getAsMap().values()) {
+					match(child, path, position + 1, handler);
+				}
+			}
+		} else if (value instanceof JsonArray) {
+			final JsonArray array = (JsonArray) value;
+			for (int i = 0; i < array.size(); i++) {
+				if (step.matches(i)) {
+					match(array.get(i), path, position + 1, handler);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the expressions.
+	 *
+	 * @return The expressions, in the order of the constructor.
+	 */
+	public String[] getPaths() {
+		return paths.clone();
+	}
+
+	private static Step[] compile(String path) {
+		if (path == null || !path.startsWith("$")) {
+			throw new IllegalArgumentException("A JSONPath must starts with \"$\": " + path);
+		}
+
+		final List<Step> steps = new ArrayList<>();
+		int i = 1;
+		while (i < path.length()) {
+			final char c = path.charAt(i);
+			if (c == '.') {
+				int end = i + 1;
+				while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') end++;
+				final String name = path.substring(i + 1, end);
+				if (name.isEmpty()) {
+					throw new IllegalArgumentException("Expecting a key at index " + (i + 1) + " of the JSONPath: " + path);
+				}
+				steps.add(name.equals("*") ? new Step(null, -1) : new Step(name, -1));
+				i = end;
+			} else if (c == '[') {
+				final int end = path.indexOf(']', i);
+				if (end < 0) {
+					throw new IllegalArgumentException("Expecting \"]\" after index " + i + " of the JSONPath: " + path);
+				}
+				final String selector = path.substring(i + 1, end).trim();
+				if (selector.equals("*")) {
+					steps.add(new Step(null, -1));
+				} else if (selector.length() >= 2 && (selector.charAt(0) == '\'' || selector.charAt(0) == '\"')
+						&& selector.charAt(selector.length() - 1) == selector.charAt(0)) {
+					steps.add(new Step(selector.substring(1, selector.length() - 1), -1));
+				} else {
+					try {
+						final int index = Integer.parseInt(selector);
+						if (index < 0) throw new NumberFormatException();
+						steps.add(new Step(null, index));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException("Invalid selector [" + selector + "] in the JSONPath: " + path);
+					}
+				}
+				i = end + 1;
+			} else {
+				throw new IllegalArgumentException("Unexpected char \"" + c + "\" at index " + i + " of the JSONPath: " + path);
+			}
+		}
+		return steps.toArray(new Step[0]);
+	}
+
+	/**
+	 * Handles the matches of a {@link JsonPathExtractor}.
+	 */
+	@FunctionalInterface
+	public interface MatchHandler {
+
+		/**
+		 * Handle a matched value.
+		 *
+		 * @param path The expression which matches the value.
+		 * @param value The value, which may be a {@link JsonObject}, a {@link JsonArray}, or null.
+		 */
+		void match(String path, Object value);
+
+	}
+
+	// A key, an index, or a wildcard if the key is null and the index is -1
+	private static class Step {
+		private final String key; // Nullable
+		private final int index;
+
+		private Step(String key, int index) {
+			this.key = key;
+			this.index = index;
+		}
+
+		// Match the current key of the tokenizer
+		private boolean matches(JsonTokenizer tokenizer) {
+			return key != null ? tokenizer.textEquals(key) : index < 0;
+		}
+
+		// Match an index of an array
+		private boolean matches(int index) {
+			return key == null && (this.index < 0 || this.index == index);
+		}
+	}
+
+}
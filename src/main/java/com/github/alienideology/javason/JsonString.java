@@ -0,0 +1,148 @@
+package com.github.alienideology.javason;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A json string value as a view of the buffer it is parsed from, see {@link JsonParser#setStringViews(boolean)}.
+ * The content is only decoded into a {@link String} when {@link #toString()} is invoked, which is cached.
+ * Strings without escapes, and only ASCII chars if they are parsed from UTF-8 bytes, are read from the buffer directly.
+ * <p>
+ * A view keeps the whole buffer in memory, so views should not outlive the parsed json for long.
+ * A view is equal to a view or a {@link String} with the same chars, and the hash code is the same as the one of {@link String}.
+ * Since {@link String#equals(Object)} is false for a view, json objects and arrays compare views and strings both ways,
+ * so a json value parsed with views is equal to the same json value parsed without them.
+ *
+ * @author AlienIdeology
+ */
+public final class JsonString implements CharSequence {
+
+	private final char[] chars; // Null for UTF-8 bytes
+	private final byte[] bytes; // Null for chars
+	private final int start;
+	private final int end;
+	private final long offset; // Index of the content in the json
+	private final boolean escaped; // Contains a backslash
+	private final boolean plain; // The chars of the buffer are the chars of the string
+	private String string; // Nullable until decoded
+	private int hash;
+
+	// The content between the quotes in the chars
+	JsonString(char[] chars, int start, int end, long offset, boolean escaped) {
+		this.chars = chars;
+		this.bytes = null;
+		this.start = start;
+		this.end = end;
+		this.offset = offset;
+		this.escaped = escaped;
+		this.plain = !escaped;
+	}
+
+	// The content between the quotes in the UTF-8 bytes
+	JsonString(byte[] bytes, int start, int end, long offset, boolean escaped, boolean ascii) {
+		this.chars = null;
+		this.bytes = bytes;
+		this.start = start;
+		this.end = end;
+		this.offset = offset;
+		this.escaped = escaped;
+		this.plain = !escaped && ascii;
+	}
+
+	@Override
+	public int length() {
+		return plain ? end - start : toString().length();
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (!plain) {
+			return toString().charAt(index);
+		} else if (index < 0 || index >= end - start) {
+			throw new StringIndexOutOfBoundsException(index);
+		}
+		return chars != null ? chars[start + index] : (char) bytes[start + index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (!plain) {
+			return toString().subSequence(start, end);
+		} else if (start < 0 || end > length() || start > end) {
+			throw new StringIndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length());
+		}
+		return chars != null
+				? new JsonString(chars, this.start + start, this.start + end, offset + start, false)
+				: new JsonString(bytes, this.start + start, this.start + end, offset + start, false, true);
+	}
+
+	/**
+	 * Get the decoded string, which is created once.
+	 * The escape sequences are validated when the string is parsed, so decoding does not fail.
+	 *
+	 * @return The string.
+	 */
+	@Override
+	public String toString() {
+		if (string == null && escaped) {
+			final char[] decoded = new char[end - start];
+			string = new String(decoded, 0, JsonTokenizer.decode(chars, bytes, start, end, decoded, offset));
+		} else if (string == null) {
+			string = chars != null
+					? new String(chars, start, end - start)
+					: new String(bytes, start, end - start, plain ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+		}
+		return string;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (!(obj instanceof JsonString) && !(obj instanceof String)) {
+			return false;
+		}
+		final CharSequence other = (CharSequence) obj;
+		final int length = length();
+		if (length != other.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (charAt(i) != other.charAt(i)) return false;
+		}
+		return true;
+	}
+
+	// Equality of json values, which compares a view with a string both ways
+	static boolean equal(Object a, Object b) {
+		if (b instanceof JsonString) {
+			return b.equals(a);
+		}
+		return a == null ? b == null : a.equals(b);
+	}
+
+	@Override
+	public int hashCode() {
+		if (hash == 0 && !plain) {
+			hash = toString().hashCode();
+		} else if (hash == 0) {
+			int h = 0;
+			for (int i = start; i < end; i++) {
+				h = 31 * h + (chars != null ? chars[i] : bytes[i]);
+			}
+			hash = h;
+		}
+		return hash;
+	}
+
+	// The content as written in the json, which is already escaped
+	CharSequence raw() {
+		if (plain) {
+			return this;
+		}
+		return chars != null
+				? CharBuffer.wrap(chars, start, end - start)
+				: new String(bytes, start, end - start, StandardCharsets.UTF_8);
+	}
+
+}
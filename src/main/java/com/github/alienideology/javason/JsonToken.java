@@ -0,0 +1,21 @@
+package com.github.alienideology.javason;
+
+/**
+ * Tokens returned by {@link JsonTokenizer#nextToken()}.
+ *
+ * @author AlienIdeology
+ */
+public enum JsonToken {
+	START_OBJECT, // {
+	END_OBJECT, // }
+	START_ARRAY, // [
+	END_ARRAY, // ]
+	KEY, // "key":
+	STRING,
+	NUMBER,
+	TRUE,
+	FALSE,
+	NULL,
+	END_DOCUMENT,
+	NEED_MORE_INPUT // The fed input has no complete token, see JsonFeedParser
+}
@@ -0,0 +1,1523 @@
+package com.github.alienideology.javason;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * A pull tokenizer for tokenizing json keys and values one at a time.
+ * When reading from a {@link Reader} or an {@link InputStream}, only a fixed size buffer is kept in memory,
+ * which is refilled as the tokens are consumed. The buffer only grows if a single token does not fit in it.
+ * <p>
+ * Bytes are scanned as UTF-8 directly, without decoding them into chars first.
+ * Only keys and string values are decoded, when their text is requested.
+ *
+ * @author AlienIdeology
+ */
+public class JsonTokenizer implements Closeable {
+
+	/**
+	 * The default buffer size, in chars or bytes.
+	 */
+	public final static int DEFAULT_BUFFER_SIZE = 8*1024;
+
+	/**
+	 * The default maximum depth of nested objects and arrays.
+	 */
+	public final static int DEFAULT_MAX_DEPTH = 1000;
+
+	private final static long MAP_REGION_SIZE = 1L << 30; // Files are mapped in regions of 1G
+
+	// Thrown by fill() when fed input runs out, to restart the current token
+	private final static RuntimeException NEED_MORE_INPUT = new RuntimeException(null, null, false, false) {};
+
+	// Parsing states
+	private final static int VALUE = 0; // Expecting a value
+	private final static int FIRST_VALUE = 1; // After "[", expecting a value or "]"
+	private final static int KEY = 2; // After "," in an object, expecting a key
+	private final static int FIRST_KEY = 3; // After "{", expecting a key or "}"
+	private final static int AFTER_VALUE = 4; // Expecting ",", "}" or "]"
+	private final static int DONE = 5;
+
+	// Parts of a number
+	private final static int NUMBER_SIGN = 0; // Expecting "-" or a digit
+	private final static int NUMBER_FIRST_DIGIT = 1; // After "-"
+	private final static int NUMBER_ZERO = 2; // After a leading "0"
+	private final static int NUMBER_INTEGER = 3;
+	private final static int NUMBER_FIRST_FRACTION = 4; // After "."
+	private final static int NUMBER_FRACTION = 5;
+	private final static int NUMBER_EXPONENT_SIGN = 6; // After "e" or "E"
+	private final static int NUMBER_FIRST_EXPONENT = 7; // After the sign of the exponent
+	private final static int NUMBER_EXPONENT = 8;
+
+	// Sources to fill the buffer from, all null if the whole json is in the buffer
+	private Reader reader;
+	private InputStream stream;
+	private ByteBuffer[] sources;
+	private int sourceIndex;
+	private boolean feeding; // Input is fed by feed(ByteBuffer)
+	private boolean ended; // The end of the fed input
+
+	private char[] buf; // Null for byte input
+	private byte[] bytes; // Null for char input
+	private boolean ownsBuffer; // The buffer is from the BufferRecycler, and is not shared
+	private int pos;
+	private int limit;
+	private int tokenStart;
+	private long bufferOffset; // Index of the buffer's first element in the json source
+	private int[] structurals; // Indexes of structural characters in the buffer, see StructuralIndex
+	private ByteBuffer words; // Nullable, little-endian view of the bytes, to scan strings a word at a time
+	private char[] scratch; // Nullable, the decoded text of escaped strings
+	private SymbolTable symbols; // Nullable
+
+	private boolean[] objects = new boolean[16]; // Container stack, true if the container is an object
+	private int depth;
+	private int maxDepth = DEFAULT_MAX_DEPTH;
+	private int state;
+
+	private JsonToken token;
+	private long tokenOffset;
+	private int textStart;
+	private int textEnd;
+	private boolean textEscaped; // The string text contains a backslash
+	private boolean textAscii; // The string text only has ASCII bytes
+	private String text;
+	private NumberType numberType; // Null until the number is parsed
+	private long longValue;
+	private double doubleValue;
+	private BigDecimal decimalValue; // The number if it is NumberType.BIG_DECIMAL
+
+	// The scanned number is significand * 10^exponent, the significand is an unsigned long of up to 19 digits
+	private long significand;
+	private int exponent;
+	private boolean negative;
+	private boolean inexact; // True if non-zero digits are dropped from the significand
+	private boolean integral;
+
+	/**
+	 * Construct a tokenizer by the given json string.
+	 *
+	 * @param json The json string.
+	 */
+	public JsonTokenizer(String json) {
+		reset(json);
+	}
+
+	/**
+	 * Construct a tokenizer by a range of the given chars.
+	 * The chars are not copied, so they should not be modified while tokenizing.
+	 *
+	 * @param json The json chars.
+	 * @param offset The index of the first char of the json.
+	 * @param length The amount of chars of the json.
+	 */
+	public JsonTokenizer(char[] json, int offset, int length) {
+		reset(json, offset, length);
+	}
+
+	/**
+	 * Construct a tokenizer by the given char sequence, such as a {@link StringBuilder} or a {@link java.nio.CharBuffer}.
+	 * The chars are read into the buffer in chunks of {@link #DEFAULT_BUFFER_SIZE}, without copying the whole sequence first.
+	 *
+	 * @param json The json chars.
+	 */
+	public JsonTokenizer(CharSequence json) {
+		reset(json);
+	}
+
+	/**
+	 * Construct a tokenizer by a given reader, with the {@link #DEFAULT_BUFFER_SIZE}.
+	 *
+	 * @param reader The reader.
+	 */
+	public JsonTokenizer(Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Construct a tokenizer by a given reader.
+	 *
+	 * @param reader The reader.
+	 * @param bufferSize The initial size of the buffer, in chars.
+	 */
+	public JsonTokenizer(Reader reader, int bufferSize) {
+		resetState(reader, null, null);
+		acquireChars(checkBufferSize(bufferSize));
+	}
+
+	/**
+	 * Construct a tokenizer by the given UTF-8 bytes.
+	 *
+	 * @param json The json bytes.
+	 */
+	public JsonTokenizer(byte[] json) {
+		this(json, 0, json.length);
+	}
+
+	/**
+	 * Construct a tokenizer by a range of the given UTF-8 bytes.
+	 * The bytes are not copied, so they should not be modified while tokenizing.
+	 *
+	 * @param json The json bytes.
+	 * @param offset The index of the first byte of the json.
+	 * @param length The amount of bytes of the json.
+	 */
+	public JsonTokenizer(byte[] json, int offset, int length) {
+		reset(json, offset, length);
+	}
+
+	/**
+	 * Construct a tokenizer by the remaining UTF-8 bytes of the given buffer.
+	 * The position of the buffer is not changed.
+	 * If the buffer is backed by an array, then the array is tokenized directly,
+	 * otherwise the bytes are read in chunks of {@link #DEFAULT_BUFFER_SIZE}.
+	 *
+	 * @param json The json buffer.
+	 */
+	public JsonTokenizer(ByteBuffer json) {
+		reset(json);
+	}
+
+	/**
+	 * Construct a tokenizer by the remaining UTF-8 bytes of the given buffers, in order, as one json.
+	 * A token may span several buffers, such as the buffers of a message received from a network.
+	 * The positions of the buffers are not changed.
+	 *
+	 * @param json The json buffers.
+	 */
+	public JsonTokenizer(ByteBuffer[] json) {
+		reset(json);
+	}
+
+	/**
+	 * Construct a tokenizer by a given UTF-8 input stream, with the {@link #DEFAULT_BUFFER_SIZE}.
+	 *
+	 * @param stream The input stream.
+	 */
+	public JsonTokenizer(InputStream stream) {
+		this(stream, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Construct a tokenizer by a given UTF-8 input stream.
+	 *
+	 * @param stream The input stream.
+	 * @param bufferSize The initial size of the buffer, in bytes.
+	 */
+	public JsonTokenizer(InputStream stream, int bufferSize) {
+		resetState(null, stream, null);
+		acquireBytes(checkBufferSize(bufferSize));
+	}
+
+	/**
+	 * Construct a tokenizer by the given UTF-8 file.
+	 * The file is memory-mapped, so the bytes are read from the OS page cache in chunks of {@link #DEFAULT_BUFFER_SIZE},
+	 * without reading the whole file into the heap. The file is closed once it is mapped.
+	 *
+	 * @param path The path of the file.
+	 * @throws IOException
+	 * 		If an I/O error occurs.
+	 */
+	public JsonTokenizer(Path path) throws IOException {
+		this(map(path));
+	}
+
+	// The input is fed by #feed(ByteBuffer)
+	JsonTokenizer(int bufferSize) {
+		acquireBytes(checkBufferSize(bufferSize));
+		this.feeding = true;
+	}
+
+
+	// Tokenize the value at the index of the document's buffer, sharing the buffer
+	// The document must have been read fully, see #readFully()
+	JsonTokenizer(JsonTokenizer document, int index) {
+		this.buf = document.buf;
+		this.bytes = document.bytes;
+		this.pos = index;
+		this.limit = document.limit;
+		this.bufferOffset = document.bufferOffset;
+		this.structurals = document.structurals;
+		this.symbols = document.symbols;
+		this.maxDepth = document.maxDepth;
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize the given json string.
+	 * The string is copied into the buffer of the tokenizer, which is reused if it is large enough.
+	 * Resetting keeps the symbol table and the maximum depth, and does not close the previous reader or input stream.
+	 *
+	 * @param json The json string.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(String json) {
+		resetState(null, null, null);
+		acquireChars(json.length());
+		json.getChars(0, json.length(), buf, 0);
+		limit = json.length();
+		return this;
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize a range of the given chars, see {@link #reset(String)}.
+	 * The chars are not copied, so they should not be modified while tokenizing.
+	 *
+	 * @param json The json chars.
+	 * @param offset The index of the first char of the json.
+	 * @param length The amount of chars of the json.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(char[] json, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > json.length) {
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for length " + json.length);
+		}
+		resetState(null, null, null);
+		releaseBuffer();
+		this.buf = json;
+		this.pos = offset;
+		this.limit = offset + length;
+		this.bufferOffset = -offset;
+		return this;
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize the given char sequence, see {@link #JsonTokenizer(CharSequence)} and {@link #reset(String)}.
+	 *
+	 * @param json The json chars.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(CharSequence json) {
+		if (json instanceof String) {
+			return reset((String) json);
+		}
+		resetState(new CharSequenceReader(json), null, null);
+		acquireChars(Math.max(16, Math.min(DEFAULT_BUFFER_SIZE, json.length())));
+		return this;
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize a given reader, see {@link #reset(String)}.
+	 *
+	 * @param reader The reader.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(Reader reader) {
+		resetState(reader, null, null);
+		acquireChars(DEFAULT_BUFFER_SIZE);
+		return this;
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize the given UTF-8 bytes, see {@link #reset(String)}.
+	 *
+	 * @param json The json bytes.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(byte[] json) {
+		return reset(json, 0, json.length);
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize a range of the given UTF-8 bytes, see {@link #reset(String)}.
+	 * The bytes are not copied, so they should not be modified while tokenizing.
+	 *
+	 * @param json The json bytes.
+	 * @param offset The index of the first byte of the json.
+	 * @param length The amount of bytes of the json.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(byte[] json, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > json.length) {
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for length " + json.length);
+		}
+		resetState(null, null, null);
+		releaseBuffer();
+		this.bytes = json;
+		this.pos = offset;
+		this.limit = offset + length;
+		this.bufferOffset = -offset;
+		return this;
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize the remaining UTF-8 bytes of the given buffer,
+	 * see {@link #JsonTokenizer(ByteBuffer)} and {@link #reset(String)}.
+	 *
+	 * @param json The json buffer.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(ByteBuffer json) {
+		if (json.hasArray()) {
+			return reset(json.array(), json.arrayOffset() + json.position(), json.remaining());
+		}
+		resetState(null, null, new ByteBuffer[] {json.duplicate()});
+		acquireBytes(Math.max(16, Math.min(DEFAULT_BUFFER_SIZE, json.remaining())));
+		return this;
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize the remaining UTF-8 bytes of the given buffers,
+	 * see {@link #JsonTokenizer(ByteBuffer[])} and {@link #reset(String)}.
+	 *
+	 * @param json The json buffers.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(ByteBuffer[] json) {
+		if (json.length == 1) {
+			return reset(json[0]);
+		}
+		final ByteBuffer[] sources = new ByteBuffer[json.length];
+		for (int i = 0; i < json.length; i++) {
+			sources[i] = json[i].duplicate();
+		}
+		resetState(null, null, sources);
+		acquireBytes(DEFAULT_BUFFER_SIZE);
+		return this;
+	}
+
+	/**
+	 * Reset the tokenizer to tokenize a given UTF-8 input stream, see {@link #reset(String)}.
+	 *
+	 * @param stream The input stream.
+	 * @return The tokenizer for chaining.
+	 */
+	public JsonTokenizer reset(InputStream stream) {
+		resetState(null, stream, null);
+		acquireBytes(DEFAULT_BUFFER_SIZE);
+		return this;
+	}
+
+	// Clear the state of the previous json
+	private void resetState(Reader reader, InputStream stream, ByteBuffer[] sources) {
+		this.reader = reader;
+		this.stream = stream;
+		this.sources = sources;
+		sourceIndex = 0;
+		feeding = false;
+		ended = false;
+		pos = 0;
+		limit = 0;
+		tokenStart = 0;
+		bufferOffset = 0;
+		structurals = null;
+		depth = 0;
+		state = VALUE;
+		token = null;
+		tokenOffset = 0;
+		textStart = 0;
+		textEnd = 0;
+		text = null;
+		numberType = null;
+	}
+
+	// Reuse the owned char buffer if it is large enough, otherwise take one from the recycler
+	private void acquireChars(int size) {
+		if (!ownsBuffer || buf == null || buf.length < size) {
+			releaseBuffer();
+			buf = BufferRecycler.chars(size);
+			ownsBuffer = true;
+		}
+	}
+
+	// Reuse the owned byte buffer if it is large enough, otherwise take one from the recycler
+	private void acquireBytes(int size) {
+		if (!ownsBuffer || bytes == null || bytes.length < size) {
+			releaseBuffer();
+			bytes = BufferRecycler.bytes(size);
+			ownsBuffer = true;
+		}
+	}
+
+	// Return the owned buffer to the recycler
+	private void releaseBuffer() {
+		if (ownsBuffer) {
+			if (buf != null) {
+				BufferRecycler.release(buf);
+			} else {
+				BufferRecycler.release(bytes);
+			}
+		}
+		buf = null;
+		bytes = null;
+		ownsBuffer = false;
+	}
+
+	/**
+	 * Read the next token.
+	 *
+	 * @return The token, or {@link JsonToken#END_DOCUMENT} if the root value has been read.
+	 * @throws JsonException
+	 * 		For any syntax errors, or if an I/O error occurs.
+	 */
+	public JsonToken nextToken() throws JsonException {
+		text = null;
+		numberType = null;
+		if (!feeding) {
+			return readToken();
+		}
+
+		final int start = pos;
+		final int startState = state;
+		try {
+			return readToken();
+		} catch (RuntimeException e) {
+			if (e != NEED_MORE_INPUT) throw e;
+			pos = start; // Scan the token again once more input is fed
+			state = startState;
+			return token = JsonToken.NEED_MORE_INPUT;
+		}
+	}
+
+	private JsonToken readToken() {
+		if (state == DONE) {
+			return token = JsonToken.END_DOCUMENT;
+		} else if ((token == null || token == JsonToken.NEED_MORE_INPUT) && bufferOffset + pos == 0) {
+			skipByteOrderMark();
+		}
+
+		int ch = nextSignificant(false);
+		tokenOffset = bufferOffset + pos;
+		if (ch < 0 && state == VALUE && depth == 0) { // Empty json
+			state = DONE;
+			return token = JsonToken.END_DOCUMENT;
+		}
+
+		if (state == AFTER_VALUE) {
+			if (ch == ',') {
+				pos++;
+				state = objects[depth - 1] ? KEY : VALUE;
+				ch = nextSignificant(false);
+				tokenOffset = bufferOffset + pos;
+			} else if (ch == '}' && objects[depth - 1] || ch == ']' && !objects[depth - 1]) {
+				pos++;
+				return endContainer();
+			} else {
+				throw unexpected(ch, objects[depth - 1] ? "\",\" or \"}\"" : "\",\" or \"]\"");
+			}
+		}
+
+		if (state == FIRST_KEY || state == KEY) {
+			if (ch == '}' && state == FIRST_KEY) {
+				pos++;
+				return endContainer();
+			} else if (ch != '\"') {
+				throw unexpected(ch, "\"");
+			}
+			pos++;
+			scanString();
+			final int colon = nextSignificant(true);
+			if (colon != ':') {
+				throw unexpected(colon, ":");
+			}
+			pos++;
+			state = VALUE;
+			return token = JsonToken.KEY;
+		}
+
+		if (ch == ']' && state == FIRST_VALUE) {
+			pos++;
+			return endContainer();
+		}
+		return readValue(ch);
+	}
+
+	/**
+	 * Get the current token.
+	 *
+	 * @return The token, or null if {@link #nextToken()} has not been invoked.
+	 */
+	// Nullable
+	public JsonToken getToken() {
+		return token;
+	}
+
+	/**
+	 * Get the text of the current token.
+	 * For {@link JsonToken#KEY} and {@link JsonToken#STRING}, this is the content between the quotes, with the escape sequences decoded.
+	 * For {@link JsonToken#NUMBER}, this is the number as written in the json.
+	 * Keys are interned by the {@link SymbolTable} if there is one.
+	 * The text is only available until the next invocation of {@link #nextToken()}.
+	 *
+	 * @return The text, or null if the token has no text.
+	 */
+	// Nullable
+	public String getText() {
+		if (text == null) {
+			if (token == JsonToken.KEY && symbols != null && (text = internKey()) != null) {
+				return text;
+			}
+			final int length = textEnd - textStart;
+			if (token == JsonToken.NUMBER) {
+				text = bytes != null
+						? new String(bytes, textStart, length, StandardCharsets.ISO_8859_1)
+						: new String(buf, textStart, length);
+			} else if ((token == JsonToken.KEY || token == JsonToken.STRING) && textEscaped) {
+				if (scratch == null || scratch.length < length) {
+					scratch = new char[Math.max(64, length)];
+				}
+				text = new String(scratch, 0, decode(buf, bytes, textStart, textEnd, scratch, bufferOffset + textStart));
+			} else if (token == JsonToken.KEY || token == JsonToken.STRING) { // Without copying into the scratch
+				text = bytes != null
+						? new String(bytes, textStart, length, textAscii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8)
+						: new String(buf, textStart, length);
+			} else if (token == JsonToken.TRUE || token == JsonToken.FALSE || token == JsonToken.NULL) {
+				text = token.name().toLowerCase();
+			}
+		}
+		return text;
+	}
+
+	/**
+	 * Get the text of the current {@link JsonToken#KEY} or {@link JsonToken#STRING} as a view, without decoding it.
+	 * If the whole json is in the buffer, such as a string or bytes, then the view reads the buffer,
+	 * which is no longer reused by the tokenizer. Otherwise, the text is copied since the buffer is refilled.
+	 *
+	 * @return The view, or null if the token is not a key or a string.
+	 */
+	// Nullable
+	public JsonString getTextView() {
+		if (token != JsonToken.KEY && token != JsonToken.STRING) {
+			return null;
+		} else if (reader != null || stream != null || sources != null || feeding) {
+			final int length = textEnd - textStart;
+			return bytes != null
+					? new JsonString(Arrays.copyOfRange(bytes, textStart, textEnd), 0, length, bufferOffset + textStart, textEscaped, textAscii)
+					: new JsonString(Arrays.copyOfRange(buf, textStart, textEnd), 0, length, bufferOffset + textStart, textEscaped);
+		}
+		ownsBuffer = false; // The buffer is shared by the views
+		return bytes != null
+				? new JsonString(bytes, textStart, textEnd, bufferOffset + textStart, textEscaped, textAscii)
+				: new JsonString(buf, textStart, textEnd, bufferOffset + textStart, textEscaped);
+	}
+
+	/**
+	 * Set the maximum depth of nested objects and arrays.
+	 * Deeper json throws a {@link JsonException} as soon as the limit is exceeded.
+	 *
+	 * @param maxDepth The maximum depth.
+	 */
+	public void setMaxDepth(int maxDepth) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("The maximum depth must be positive!");
+		}
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Get the maximum depth of nested objects and arrays.
+	 *
+	 * @return The maximum depth.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Set the table to intern the text of keys with, see {@link #getText()}.
+	 *
+	 * @param symbols The table, or null to not intern keys.
+	 */
+	public void setSymbolTable(SymbolTable symbols) {
+		this.symbols = symbols;
+	}
+
+	/**
+	 * Get the table to intern the text of keys with.
+	 *
+	 * @return The table, or null if keys are not interned.
+	 */
+	// Nullable
+	public SymbolTable getSymbolTable() {
+		return symbols;
+	}
+
+	/**
+	 * Get the number of the current {@link JsonToken#NUMBER} token.
+	 *
+	 * @return The number.
+	 * @throws JsonException
+	 * 		If the current token is not a number, or if the number is not valid.
+	 */
+	public Number getNumber() throws JsonException {
+		switch (getNumberType()) {
+			case INT:
+				return (int) longValue;
+			case LONG:
+				return longValue;
+			case DOUBLE:
+				return doubleValue;
+			case BIG_INTEGER:
+				return new BigInteger(getText());
+			default:
+				return decimalValue;
+		}
+	}
+
+	/**
+	 * Get the type of the current {@link JsonToken#NUMBER} token.
+	 *
+	 * @return The number type.
+	 * @throws JsonException
+	 * 		If the current token is not a number, or if the number is not valid.
+	 */
+	public NumberType getNumberType() throws JsonException {
+		if (numberType == null) {
+			parseNumber();
+		}
+		return numberType;
+	}
+
+	/**
+	 * Get the current {@link JsonToken#NUMBER} token as a long, without boxing it.
+	 *
+	 * @return The long.
+	 * @throws JsonException
+	 * 		If the current token is not a number, or if the number is not {@link NumberType#INT} or {@link NumberType#LONG}.
+	 */
+	public long getLong() throws JsonException {
+		final NumberType type = getNumberType();
+		if (type != NumberType.INT && type != NumberType.LONG) {
+			throw new JsonException("The number " + getText() + " is not a long!");
+		}
+		return longValue;
+	}
+
+	/**
+	 * Get the current {@link JsonToken#NUMBER} token as a double, without boxing it.
+	 * Integers are widened to double.
+	 *
+	 * @return The double.
+	 * @throws JsonException
+	 * 		If the current token is not a number, or if the number is not valid.
+	 */
+	public double getDouble() throws JsonException {
+		switch (getNumberType()) {
+			case INT:
+			case LONG:
+				return longValue;
+			case DOUBLE:
+				return doubleValue;
+			case BIG_INTEGER:
+				return new BigInteger(getText()).doubleValue();
+			default:
+				return decimalValue.doubleValue();
+		}
+	}
+
+	/**
+	 * Get the index of the current token in the json source.
+	 *
+	 * @return The index, in chars, or in bytes for byte input.
+	 */
+	public long getTokenOffset() {
+		return tokenOffset;
+	}
+
+	/**
+	 * Skip the values in the current object or array.
+	 * If the current token is {@link JsonToken#START_OBJECT} or {@link JsonToken#START_ARRAY},
+	 * then the tokenizer is moved to the matching {@link JsonToken#END_OBJECT} or {@link JsonToken#END_ARRAY}.
+	 * Otherwise, this does nothing.
+	 *
+	 * @throws JsonException
+	 * 		For any syntax errors.
+	 */
+	public void skipChildren() throws JsonException {
+		if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) return;
+		if (feeding && !ended) {
+			throw new IllegalStateException("Cannot skip values before the end of the input is fed!");
+		}
+		if (structurals != null && skipIndexed()) return;
+
+		final int target = depth - 1;
+		while (depth > target) {
+			nextToken();
+		}
+	}
+
+	/**
+	 * Get the amount of objects and arrays which the current token is in.
+	 *
+	 * @return The depth, {@code 0} for the root value.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Close the underlying reader or input stream, if any,
+	 * and return the buffer to be reused by other tokenizers, unless it is shared by lazily parsed values.
+	 * The tokenizer can be reused after it is reset.
+	 */
+	@Override
+	public void close() throws IOException {
+		releaseBuffer();
+		sources = null;
+		if (reader != null) {
+			reader.close();
+		} else if (stream != null) {
+			stream.close();
+		}
+	}
+
+	// Append the remaining bytes of the chunk to the buffer, keeping the current token and the text
+	void feed(ByteBuffer chunk) {
+		if (ended) {
+			throw new IllegalStateException("The end of the input has been fed!");
+		}
+		final int length = chunk.remaining();
+		if (limit + length > bytes.length) {
+			compact(Math.min(tokenStart, pos));
+			if (limit + length > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, limit + length));
+			}
+		}
+		chunk.get(bytes, limit, length);
+		limit += length;
+	}
+
+	// No more input will be fed
+	void endInput() {
+		ended = true;
+	}
+
+	// Compare the text of the current token, without creating it unless it is escaped, or not ASCII for byte input
+	boolean textEquals(String value) {
+		if (text != null) {
+			return text.equals(value);
+		}
+		final int length = textEnd - textStart;
+		for (int i = 0; i < length; i++) {
+			final int c = bytes != null ? bytes[textStart + i] : buf[textStart + i];
+			if (c < 0 || c == '\\') {
+				return getText().equals(value);
+			} else if (i >= value.length() || c != value.charAt(i)) {
+				return false;
+			}
+		}
+		return length == value.length();
+	}
+
+	// Continue after the root value, expecting another root value
+	void nextDocument() {
+		if (state == DONE) {
+			state = VALUE;
+		}
+	}
+
+	// Continue as if "[" has been read, expecting the next element
+	void startInArray() {
+		push(false);
+		state = VALUE;
+		token = JsonToken.START_ARRAY;
+	}
+
+	// Index of the current token in the buffer
+	int getTokenIndex() {
+		return (int) (tokenOffset - bufferOffset);
+	}
+
+	// Read the rest of the input into the buffer, so the buffer holds the whole json
+	// UTF-8 input is also indexed for skipping values, see StructuralIndex
+	void readFully() {
+		ownsBuffer = false; // The buffer is shared by the lazily parsed values
+		tokenStart = 0;
+		while (fill());
+		if (bytes != null) {
+			structurals = StructuralIndex.build(bytes, pos, limit);
+		}
+	}
+
+	// Jump to the matching closing bracket by the structural index, without tokenizing the values in between
+	// Return false if the current token is not indexed, or if the value is nested deeper than 64 levels
+	private boolean skipIndexed() {
+		int i = Arrays.binarySearch(structurals, getTokenIndex());
+		if (i < 0) return false;
+
+		long objects = 0; // Bit n is set if the container at level n is an object
+		int level = 0;
+		for (; i < structurals.length; i++) {
+			final byte b = bytes[structurals[i]];
+			if (b == '{' || b == '[') {
+				if (level == 64) return false; // Skipped by the tokens instead
+				objects = b == '{' ? objects | 1L << level : objects & ~(1L << level);
+				level++;
+			} else if (b == '}' || b == ']') {
+				level--;
+				if ((b == '}') != ((objects & 1L << level) != 0)) {
+					throw new JsonException("Unmatched \"" + (char) b + "\" at index: " + (bufferOffset + structurals[i]));
+				}
+				if (level == 0) break;
+			}
+		}
+		if (i == structurals.length) {
+			throw new JsonException("Reach end of the json string while parsing process is still going!");
+		}
+
+		pos = structurals[i] + 1;
+		tokenOffset = bufferOffset + structurals[i];
+		text = null;
+		numberType = null;
+		endContainer();
+		return true;
+	}
+
+	private JsonToken readValue(int ch) {
+		switch (ch) {
+			case '{':
+				pos++;
+				push(true);
+				state = FIRST_KEY;
+				return token = JsonToken.START_OBJECT;
+			case '[':
+				pos++;
+				push(false);
+				state = FIRST_VALUE;
+				return token = JsonToken.START_ARRAY;
+			case '\"':
+				pos++;
+				scanString();
+				afterValue();
+				return token = JsonToken.STRING;
+			case '-':
+			case '0':
+			case '1':
+			case '2':
+			case '3':
+			case '4':
+			case '5':
+			case '6':
+			case '7':
+			case '8':
+			case '9':
+			case '.':
+				scanNumber();
+				afterValue();
+				return token = JsonToken.NUMBER;
+			case 't':
+				scanLiteral("true");
+				afterValue();
+				return token = JsonToken.TRUE;
+			case 'f':
+				scanLiteral("false");
+				afterValue();
+				return token = JsonToken.FALSE;
+			case 'n':
+				scanLiteral("null");
+				afterValue();
+				return token = JsonToken.NULL;
+			case '}':
+			case ']':
+				throw new JsonException("Reached end of the json string without a value!");
+			default:
+				throw unexpected(ch, "a value");
+		}
+	}
+
+	private void push(boolean object) {
+		if (depth >= maxDepth) {
+			throw new JsonException("Exceeded the maximum depth of " + maxDepth + " at index: " + tokenOffset);
+		}
+		if (depth == objects.length) {
+			objects = Arrays.copyOf(objects, depth * 2);
+		}
+		objects[depth++] = object;
+	}
+
+	private JsonToken endContainer() {
+		final boolean object = objects[--depth];
+		afterValue();
+		return token = object ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+	}
+
+	private void afterValue() {
+		state = depth == 0 ? DONE : AFTER_VALUE;
+	}
+
+	// The cursor is right after the opening quote
+	private void scanString() {
+		tokenStart = pos;
+		textEscaped = false;
+		textAscii = true;
+		int p = bytes != null ? scanStringBytes(pos) : scanStringChars(pos);
+		textStart = tokenStart;
+		textEnd = p;
+		pos = p + 1;
+	}
+
+	// Return the index of the closing quote
+	private int scanStringChars(int p) {
+		while (true) {
+			if (p >= limit) {
+				p = refill(p);
+				continue;
+			}
+			final char c = buf[p];
+			if (c == '\"') {
+				return p;
+			} else if (c == '\\') {
+				final int length = p + 1 < limit && buf[p + 1] == 'u' ? 6 : 2;
+				if (p + length > limit) { // Read the whole escape sequence with the backslash
+					p = refill(p);
+					continue;
+				}
+				checkEscape(p);
+				textEscaped = true;
+				p += length;
+			} else if (c < 0x20) {
+				throw new JsonException("Unescaped control character in a string at index: " + (bufferOffset + p));
+			} else {
+				p++;
+			}
+		}
+	}
+
+	// Return the index of the closing quote, validating the UTF-8 sequences in between
+	private int scanStringBytes(int p) {
+		while (true) {
+			if (words == null || words.array() != bytes) {
+				words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			// Skip the words without quotes, backslashes, control chars and multi-byte sequences
+			while (p + 8 <= limit) {
+				final long word = words.getLong(p);
+				final long events = StructuralIndex.matches(word, StructuralIndex.QUOTES)
+						| StructuralIndex.matches(word, StructuralIndex.BACKSLASHES)
+						| StructuralIndex.controls(word) | word & StructuralIndex.HIGH_BITS;
+				if (events != 0) {
+					p += Long.numberOfTrailingZeros(events) >>> 3;
+					break;
+				}
+				p += 8;
+			}
+
+			if (p >= limit) {
+				p = refill(p);
+				continue;
+			}
+			final byte b = bytes[p];
+			if (b == '\"') {
+				return p;
+			} else if (b == '\\') {
+				final int length = p + 1 < limit && bytes[p + 1] == 'u' ? 6 : 2;
+				if (p + length > limit) { // Read the whole escape sequence with the backslash
+					p = refill(p);
+					continue;
+				}
+				checkEscape(p);
+				textEscaped = true;
+				p += length;
+			} else if (b >= 0x20) {
+				p++;
+			} else if (b >= 0) {
+				throw new JsonException("Unescaped control character in a string at index: " + (bufferOffset + p));
+			} else {
+				textAscii = false;
+				final int lead = b & 0xFF;
+				final int length = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : 2;
+				if (p + length > limit) { // Read the whole sequence
+					p = refill(p);
+					continue;
+				}
+				if (!isValidUtf8(bytes, p, lead, length)) {
+					throw new JsonException("Invalid UTF-8 sequence at index: " + (bufferOffset + p));
+				}
+				p += length;
+			}
+		}
+	}
+
+	// The escape sequence from the backslash at the index must be a json escape sequence, which is all read
+	private void checkEscape(int p) {
+		final int escaped = bytes != null ? bytes[p + 1] : buf[p + 1];
+		switch (escaped) {
+			case '\"':
+			case '\\':
+			case '/':
+			case 'b':
+			case 'f':
+			case 'n':
+			case 'r':
+			case 't':
+				return;
+			case 'u':
+				for (int h = p + 2; h < p + 6; h++) {
+					if (hexDigit(bytes != null ? bytes[h] : buf[h]) < 0) {
+						throw new JsonException("Invalid unicode escape sequence at index: " + (bufferOffset + p));
+					}
+				}
+				return;
+			default:
+				throw new JsonException("Invalid escape sequence \"\\" + (char) (escaped & 0xFF) + "\" at index: " + (bufferOffset + p));
+		}
+	}
+
+	// Decode the string text in the chars or the UTF-8 bytes into the output, which must be at least as long as the text
+	// The UTF-8 sequences must have been validated. The offset is the index of the text in the json, for the errors
+	// Return the amount of decoded chars
+	static int decode(char[] buf, byte[] bytes, int start, int end, char[] out, long offset) throws JsonException {
+		int n = 0;
+		int i = start;
+		while (i < end) {
+			final int c = bytes != null ? bytes[i] & 0xFF : buf[i];
+			if (c == '\\') {
+				final int escaped = i + 1 == end ? -1 : bytes != null ? bytes[i + 1] : buf[i + 1];
+				switch (escaped) {
+					case '\"':
+					case '\\':
+					case '/':
+						out[n++] = (char) escaped;
+						break;
+					case 'b':
+						out[n++] = '\b';
+						break;
+					case 'f':
+						out[n++] = '\f';
+						break;
+					case 'n':
+						out[n++] = '\n';
+						break;
+					case 'r':
+						out[n++] = '\r';
+						break;
+					case 't':
+						out[n++] = '\t';
+						break;
+					case 'u':
+						int code = 0;
+						for (int h = i + 2; h < i + 6; h++) {
+							final int digit = h < end ? hexDigit(bytes != null ? bytes[h] : buf[h]) : -1;
+							if (digit < 0) {
+								throw new JsonException("Invalid unicode escape sequence at index: " + (offset + i - start));
+							}
+							code = code << 4 | digit;
+						}
+						out[n++] = (char) code; // A surrogate pair is two escape sequences
+						i += 4;
+						break;
+					default:
+						throw new JsonException("Invalid escape sequence at index: " + (offset + i - start));
+				}
+				i += 2;
+			} else if (c < 0x80 || bytes == null) {
+				out[n++] = (char) c;
+				i++;
+			} else if (c < 0xE0) {
+				out[n++] = (char) ((c & 0x1F) << 6 | bytes[i + 1] & 0x3F);
+				i += 2;
+			} else if (c < 0xF0) {
+				out[n++] = (char) ((c & 0x0F) << 12 | (bytes[i + 1] & 0x3F) << 6 | bytes[i + 2] & 0x3F);
+				i += 3;
+			} else {
+				final int code = (c & 0x07) << 18 | (bytes[i + 1] & 0x3F) << 12 | (bytes[i + 2] & 0x3F) << 6 | bytes[i + 3] & 0x3F;
+				out[n++] = Character.highSurrogate(code);
+				out[n++] = Character.lowSurrogate(code);
+				i += 4;
+			}
+		}
+		return n;
+	}
+
+	// The value of an ASCII hex digit, or -1
+	static int hexDigit(int c) {
+		if (c >= '0' && c <= '9') return c - '0';
+		c |= 0x20; // Lower case
+		return c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+	}
+
+	// Read more input inside a string, or throw if the json ended
+	private int refill(int p) {
+		pos = p;
+		if (!fill()) {
+			throw new JsonException("Expecting char \" to appear after index: " + (bufferOffset + tokenStart - 1) + ", but it is not found!");
+		}
+		return pos;
+	}
+
+	private static boolean isValidUtf8(byte[] bytes, int p, int lead, int length) {
+		final int b1 = bytes[p + 1] & 0xFF;
+		switch (lead) {
+			case 0xE0:
+				if (b1 < 0xA0 || b1 > 0xBF) return false; // Overlong
+				break;
+			case 0xED:
+				if (b1 < 0x80 || b1 > 0x9F) return false; // Surrogates
+				break;
+			case 0xF0:
+				if (b1 < 0x90 || b1 > 0xBF) return false; // Overlong
+				break;
+			case 0xF4:
+				if (b1 < 0x80 || b1 > 0x8F) return false; // Above U+10FFFF
+				break;
+			default:
+				if (lead < 0xC2 || lead > 0xF4 || b1 < 0x80 || b1 > 0xBF) return false;
+		}
+		for (int i = 2; i < length; i++) {
+			if ((bytes[p + i] & 0xC0) != 0x80) return false;
+		}
+		return true;
+	}
+
+	// Hash the key in the buffer and look it up, or return null if the key is escaped or not ASCII
+	private String internKey() {
+		int hash = 0;
+		if (bytes != null) {
+			for (int i = textStart; i < textEnd; i++) {
+				final byte b = bytes[i];
+				if (b < 0 || b == '\\') return null;
+				hash = 31 * hash + b;
+			}
+			return symbols.intern(bytes, textStart, textEnd, hash);
+		}
+		for (int i = textStart; i < textEnd; i++) {
+			final char c = buf[i];
+			if (c == '\\') return null;
+			hash = 31 * hash + c;
+		}
+		return symbols.intern(buf, textStart, textEnd, hash);
+	}
+
+	// Scan a number by the json grammar, accumulating its first 19 significant digits and its decimal exponent
+	// The parts which are optional fall through to the next part
+	@SuppressWarnings("fallthrough")
+	private void scanNumber() {
+		tokenStart = pos;
+		int p = pos;
+		int part = NUMBER_SIGN;
+		long significand = 0;
+		int digits = 0; // Significant digits in the significand
+		int exponent = 0;
+		int explicitExponent = 0;
+		boolean negativeExponent = false;
+		boolean inexact = false;
+		negative = false;
+
+		loop:
+		while (true) {
+			if (p >= limit) {
+				pos = p;
+				final boolean filled = fill();
+				p = pos;
+				if (!filled) break; // A root number may end with the json
+				continue;
+			}
+			final int c = bytes != null ? bytes[p] : buf[p];
+			final int digit = c - '0';
+			final boolean isDigit = digit >= 0 && digit <= 9;
+			switch (part) {
+				case NUMBER_SIGN:
+					if (c == '-') {
+						negative = true;
+						part = NUMBER_FIRST_DIGIT;
+						break;
+					} // Fall through, the number has no sign
+				case NUMBER_FIRST_DIGIT:
+					if (!isDigit) break loop;
+					significand = digit;
+					if (digit != 0) digits++;
+					part = digit == 0 ? NUMBER_ZERO : NUMBER_INTEGER;
+					break;
+				case NUMBER_INTEGER:
+					if (isDigit) {
+						if (digits < 19) {
+							significand = significand * 10 + digit;
+							digits++;
+						} else { // Dropped digit
+							inexact |= digit != 0;
+							exponent++;
+						}
+						break;
+					} // Fall through, the integer part ended
+				case NUMBER_ZERO:
+					if (c == '.') {
+						part = NUMBER_FIRST_FRACTION;
+					} else if (c == 'e' || c == 'E') {
+						part = NUMBER_EXPONENT_SIGN;
+					} else {
+						break loop;
+					}
+					break;
+				case NUMBER_FIRST_FRACTION:
+				case NUMBER_FRACTION:
+					if (isDigit) {
+						if (digits < 19) {
+							significand = significand * 10 + digit;
+							if (significand != 0) digits++;
+							exponent--;
+						} else {
+							inexact |= digit != 0;
+						}
+						part = NUMBER_FRACTION;
+						break;
+					} else if (part == NUMBER_FRACTION && (c == 'e' || c == 'E')) {
+						part = NUMBER_EXPONENT_SIGN;
+						break;
+					}
+					break loop;
+				case NUMBER_EXPONENT_SIGN:
+					if (c == '-' || c == '+') {
+						negativeExponent = c == '-';
+						part = NUMBER_FIRST_EXPONENT;
+						break;
+					} // Fall through, the exponent has no sign
+				case NUMBER_FIRST_EXPONENT:
+				case NUMBER_EXPONENT:
+					if (!isDigit) break loop;
+					if (explicitExponent < 100000) { // Saturate, the double is zero or infinite anyway
+						explicitExponent = explicitExponent * 10 + digit;
+					}
+					part = NUMBER_EXPONENT;
+					break;
+			}
+			p++;
+		}
+
+		textStart = tokenStart;
+		textEnd = p;
+		pos = p;
+		if (part != NUMBER_ZERO && part != NUMBER_INTEGER && part != NUMBER_FRACTION && part != NUMBER_EXPONENT) {
+			throw new JsonException("Encountered an invalid number: " + getText() + " at index: " + (bufferOffset + tokenStart));
+		}
+		this.significand = significand;
+		this.exponent = negativeExponent ? exponent - explicitExponent : exponent + explicitExponent;
+		this.inexact = inexact;
+		this.integral = part == NUMBER_ZERO || part == NUMBER_INTEGER;
+	}
+
+	// Classify the scanned number, and convert it to a long or a double
+	private void parseNumber() {
+		if (token != JsonToken.NUMBER) {
+			throw new JsonException("The current token " + token + " is not a number!");
+		}
+
+		if (integral) {
+			// Exponent is only positive if digits are dropped, then the integer has more than 19 digits
+			if (exponent > 0 || (significand < 0 && !(negative && significand == Long.MIN_VALUE))) {
+				numberType = NumberType.BIG_INTEGER;
+				return;
+			}
+			longValue = negative ? -significand : significand;
+			numberType = longValue == (int) longValue ? NumberType.INT : NumberType.LONG;
+			return;
+		}
+
+		doubleValue = inexact ? Double.NaN : DoubleParser.toDouble(significand, exponent, negative);
+		if (Double.isNaN(doubleValue)) { // Not decided exactly
+			doubleValue = Double.parseDouble(getText());
+		}
+		if (!Double.isInfinite(doubleValue)) {
+			numberType = NumberType.DOUBLE;
+			return;
+		}
+		decimalValue = toBigDecimal();
+		numberType = NumberType.BIG_DECIMAL;
+	}
+
+	// Check that the current number fits in a big decimal, without converting it, for numbers which are kept as their text
+	void checkNumberRange() {
+		if (exponent <= -100000 || exponent >= 100000) { // Only a saturated exponent may not fit
+			toBigDecimal();
+		}
+	}
+
+	private BigDecimal toBigDecimal() {
+		try {
+			return new BigDecimal(getText());
+		} catch (NumberFormatException e) { // The exponent does not fit in the scale of a big decimal
+			throw new JsonException("The number " + getText() + " is out of range at index: " + tokenOffset);
+		}
+	}
+
+	private void scanLiteral(String literal) {
+		tokenStart = pos;
+		while (limit - pos < literal.length() && fill());
+		for (int i = 0; i < literal.length(); i++) {
+			if (pos + i >= limit || charAt(pos + i) != literal.charAt(i)) {
+				throw unexpected(charAt(pos), "\"" + literal + "\"");
+			}
+		}
+		pos += literal.length();
+	}
+
+	// Skip white spaces, then return the char at the cursor without consuming it, or -1 if the json ended
+	// If keepText, the text of the current token is kept in the buffer
+	private int nextSignificant(boolean keepText) {
+		while (true) {
+			if (bytes != null) {
+				while (pos < limit) {
+					final byte b = bytes[pos];
+					if (b != ' ' && b != '\t' && b != '\n' && b != '\r') return b & 0xFF;
+					pos++;
+				}
+			} else {
+				while (pos < limit) {
+					final char ch = buf[pos];
+					if (ch != ' ' && ch != '\t' && ch != '\n' && ch != '\r') return ch;
+					pos++;
+				}
+			}
+			tokenStart = keepText ? textStart : pos;
+			if (!fill()) return -1;
+		}
+	}
+
+	private void skipByteOrderMark() {
+		tokenStart = pos;
+		if (bytes != null) {
+			while (limit - pos < 3 && (pos == limit || bytes[pos] == (byte) 0xEF) && fill());
+			if (limit - pos >= 3 && bytes[pos] == (byte) 0xEF && bytes[pos + 1] == (byte) 0xBB && bytes[pos + 2] == (byte) 0xBF) {
+				pos += 3;
+			}
+		} else if ((pos < limit || fill()) && buf[pos] == '\uFEFF') {
+			pos++;
+		}
+	}
+
+	private int charAt(int index) {
+		return bytes != null ? bytes[index] & 0xFF : buf[index];
+	}
+
+	// Keep the input from tokenStart, then read more input from the source
+	private boolean fill() {
+		if (feeding && !ended) {
+			throw NEED_MORE_INPUT;
+		} else if (reader == null && stream == null && sources == null) {
+			return false;
+		}
+
+		final int capacity = bytes != null ? bytes.length : buf.length;
+		if (tokenStart > 0) {
+			compact(tokenStart);
+		} else if (limit == capacity) { // The token is larger than the buffer
+			if (bytes != null) {
+				bytes = Arrays.copyOf(bytes, capacity * 2);
+			} else {
+				buf = Arrays.copyOf(buf, capacity * 2);
+			}
+		}
+
+		try {
+			final int read;
+			if (reader != null) {
+				read = reader.read(buf, limit, buf.length - limit);
+			} else if (stream != null) {
+				read = stream.read(bytes, limit, bytes.length - limit);
+			} else {
+				read = readSources(limit, bytes.length - limit);
+			}
+			if (read <= 0) return false;
+			limit += read;
+			return true;
+		} catch (IOException e) {
+			throw new JsonException(e);
+		}
+	}
+
+	// Discard the elements before the index
+	private void compact(int shift) {
+		if (shift <= 0) return;
+		System.arraycopy(bytes != null ? bytes : buf, shift, bytes != null ? bytes : buf, 0, limit - shift);
+		limit -= shift;
+		pos -= shift;
+		textStart -= shift;
+		textEnd -= shift;
+		tokenStart -= shift;
+		bufferOffset += shift;
+	}
+
+	private int readSources(int offset, int length) {
+		while (sourceIndex < sources.length && !sources[sourceIndex].hasRemaining()) {
+			sources[sourceIndex++] = null; // Release the source, a mapped region is unmapped once it is collected
+		}
+		if (sourceIndex == sources.length) return -1;
+
+		final ByteBuffer source = sources[sourceIndex];
+		final int read = Math.min(source.remaining(), length);
+		source.get(bytes, offset, read);
+		return read;
+	}
+
+	static ByteBuffer[] map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			final ByteBuffer[] regions = new ByteBuffer[(int) ((size + MAP_REGION_SIZE - 1) / MAP_REGION_SIZE)];
+			for (int i = 0; i < regions.length; i++) {
+				final long position = i * MAP_REGION_SIZE;
+				regions[i] = channel.map(MapMode.READ_ONLY, position, Math.min(MAP_REGION_SIZE, size - position));
+			}
+			return regions;
+		}
+	}
+
+	private static int checkBufferSize(int bufferSize) {
+		if (bufferSize < 16) {
+			throw new IllegalArgumentException("The buffer size must be at least 16!");
+		}
+		return bufferSize;
+	}
+
+	private JsonException unexpected(int ch, String expected) {
+		if (ch < 0) {
+			return new JsonException("Reach end of the json string while parsing process is still going!");
+		}
+		return new JsonException("Expecting " + expected + " at index: " + (bufferOffset + pos) + ", but found \"" + (char) ch + "\"!");
+	}
+
+	/**
+	 * Types of {@link JsonToken#NUMBER} tokens, by the smallest java type which can hold the number.
+	 *
+	 * @author AlienIdeology
+	 */
+	public enum NumberType {
+		INT,
+		LONG,
+		DOUBLE,
+		BIG_INTEGER, // Integers larger than a long
+		BIG_DECIMAL // Decimals larger than a double
+	}
+
+	// Reads a char sequence in chunks, without copying the whole sequence
+	private static class CharSequenceReader extends Reader {
+		private final CharSequence sequence;
+		private int index;
+
+		private CharSequenceReader(CharSequence sequence) {
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if (index >= sequence.length()) return -1;
+			final int end = index + Math.min(len, sequence.length() - index);
+			if (sequence instanceof StringBuilder) {
+				((StringBuilder) sequence).getChars(index, end, cbuf, off);
+			} else if (sequence instanceof StringBuffer) {
+				((StringBuffer) sequence).getChars(index, end, cbuf, off);
+			} else {
+				for (int i = index; i < end; i++) {
+					cbuf[off++] = sequence.charAt(i);
+				}
+			}
+			final int read = end - index;
+			index = end;
+			return read;
+		}
+
+		@Override
+		public void close() {}
+	}
+
+}
@@ -0,0 +1,416 @@
+package com.github.alienideology.javason;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Checks the json grammar of RFC 8259 without creating any value, see {@link Javason#validate(CharSequence)}.
+ * There is a validator for each type of input, so the loops read the input directly.
+ * UTF-8 bytes are scanned 8 at a time in strings and white spaces, using the SWAR matches of {@link StructuralIndex}.
+ * Nothing is allocated per value, only the validator, and a deeper stack if the json is nested deeper than 64 levels.
+ *
+ * @author AlienIdeology
+ */
+abstract class JsonValidator {
+
+	private final static long SPACES = 0x2020202020202020L;
+	private final static long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+	private final static long RETURNS = 0x0D0D0D0D0D0D0D0DL;
+	private final static long TABS = 0x0909090909090909L;
+
+	final int end;
+	private final int start;
+	private final int maxDepth;
+
+	private JsonValidator(int start, int end, int maxDepth) {
+		this.start = start;
+		this.end = end;
+		this.maxDepth = maxDepth;
+	}
+
+	static ValidationResult validate(byte[] bytes, int start, int end, int maxDepth) {
+		return new Bytes(bytes, start, end, maxDepth).validate();
+	}
+
+	static ValidationResult validate(ByteBuffer buffer, int start, int end, int maxDepth) {
+		return new Buffer(buffer, start, end, maxDepth).validate();
+	}
+
+	static ValidationResult validate(CharSequence chars, int start, int end, int maxDepth) {
+		return new Chars(chars, start, end, maxDepth).validate();
+	}
+
+	// The char, or the unsigned byte, at the index
+	abstract int at(int i);
+
+	// The index after the byte order mark, if there is one at the index
+	abstract int skipByteOrderMark(int i);
+
+	abstract int skipWhitespaces(int i);
+
+	// The index of the first quote, backslash, control char or multi-byte sequence from the index in a string
+	abstract int skipPlain(int i);
+
+	// The length of the valid sequence of a char which is not ASCII, or -1
+	abstract int sequenceLength(int i);
+
+	final ValidationResult validate() {
+		int i = skipByteOrderMark(start);
+
+		long stack = 0; // Bit n is set if the container at depth n is an object
+		long[] deepStack = null; // Nullable, containers deeper than 64
+		int depth = 0;
+		boolean key = false; // Expecting a key before the value
+
+		while (true) {
+			i = skipWhitespaces(i);
+			if (key) {
+				if (i >= end) return error("Reached the end of the json in an object", i);
+				if (at(i) != '\"') return error("Expecting a key", i);
+				i = scanString(i + 1);
+				if (i < 0) return stringError(~i);
+				i = skipWhitespaces(i);
+				if (i >= end || at(i) != ':') return error("Expecting \":\"", i);
+				i = skipWhitespaces(i + 1);
+				key = false;
+			}
+			if (i >= end) return error("Expecting a value", i);
+
+			int c = at(i);
+			if (c == '{' || c == '[') {
+				if (depth >= maxDepth) {
+					return error("Exceeded the maximum depth of " + maxDepth, i);
+				}
+				final boolean object = c == '{';
+				if (depth < 64) {
+					stack = object ? stack | 1L << depth : stack & ~(1L << depth);
+				} else {
+					final int word = (depth >> 6) - 1;
+					if (deepStack == null || word >= deepStack.length) {
+						deepStack = deepStack == null ? new long[4] : Arrays.copyOf(deepStack, deepStack.length * 2);
+					}
+					deepStack[word] = object ? deepStack[word] | 1L << depth : deepStack[word] & ~(1L << depth);
+				}
+				depth++;
+
+				i = skipWhitespaces(i + 1);
+				if (i >= end || at(i) != (object ? '}' : ']')) {
+					key = object;
+					continue;
+				}
+				depth--; // Empty
+				i++;
+			} else if (c == '\"') {
+				i = scanString(i + 1);
+				if (i < 0) return stringError(~i);
+			} else if (c == '-' || (c >= '0' && c <= '9')) {
+				i = scanNumber(i);
+				if (i < 0) return error("Invalid number", ~i);
+			} else if (c == 't' || c == 'f' || c == 'n') {
+				final String literal = c == 't' ? "true" : c == 'f' ? "false" : "null";
+				for (int l = 0; l < literal.length(); l++, i++) {
+					if (i >= end || at(i) != literal.charAt(l)) {
+						return error("Expecting \"" + literal + "\"", i);
+					}
+				}
+			} else {
+				return error("Expecting a value", i);
+			}
+
+			// After a value, close the containers, or expect the next value
+			while (true) {
+				i = skipWhitespaces(i);
+				if (depth == 0) {
+					return i == end ? ValidationResult.VALID : error("Unexpected char after the json", i);
+				}
+				final int top = depth - 1;
+				final boolean object = ((top < 64 ? stack : deepStack[(top >> 6) - 1]) & 1L << top) != 0;
+				if (i >= end) return error("Reached the end of the json in an " + (object ? "object" : "array"), i);
+
+				c = at(i);
+				if (c == (object ? '}' : ']')) {
+					depth--;
+					i++;
+				} else if (c == ',') {
+					i++;
+					key = object;
+					break;
+				} else {
+					return error(object ? "Expecting \",\" or \"}\"" : "Expecting \",\" or \"]\"", i);
+				}
+			}
+		}
+	}
+
+	static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+	}
+
+	// The cursor is right after the opening quote, return the index after the closing quote, or ~index of the error
+	private int scanString(int i) {
+		while (true) {
+			i = skipPlain(i);
+			if (i >= end) return ~i;
+
+			final int c = at(i);
+			if (c == '\"') {
+				return i + 1;
+			} else if (c == '\\') {
+				if (i + 1 >= end) return ~i;
+				final int escaped = at(i + 1);
+				if (escaped == 'u') {
+					if (i + 6 > end) return ~i;
+					for (int h = i + 2; h < i + 6; h++) {
+						if (JsonTokenizer.hexDigit(at(h)) < 0) return ~i;
+					}
+					i += 6;
+				} else if (escaped == '\"' || escaped == '\\' || escaped == '/' || escaped == 'b'
+						|| escaped == 'f' || escaped == 'n' || escaped == 'r' || escaped == 't') {
+					i += 2;
+				} else {
+					return ~i;
+				}
+			} else if (c < 0x20) {
+				return ~i;
+			} else {
+				final int length = sequenceLength(i);
+				if (length < 0) return ~i;
+				i += length;
+			}
+		}
+	}
+
+	// Return the index after the number, or ~index of the error
+	private int scanNumber(int i) {
+		if (at(i) == '-') i++;
+		if (i >= end) return ~i;
+
+		int c = at(i);
+		if (c == '0') {
+			i++;
+		} else if (c >= '1' && c <= '9') {
+			i = skipDigits(i + 1);
+		} else {
+			return ~i;
+		}
+
+		if (i < end && at(i) == '.') {
+			final int digits = i + 1;
+			i = skipDigits(digits);
+			if (i == digits) return ~i;
+		}
+		if (i < end && ((c = at(i)) == 'e' || c == 'E')) {
+			i++;
+			if (i < end && ((c = at(i)) == '+' || c == '-')) i++;
+			final int digits = i;
+			i = skipDigits(digits);
+			if (i == digits) return ~i;
+		}
+		return i;
+	}
+
+	private int skipDigits(int i) {
+		while (i < end) {
+			final int c = at(i);
+			if (c < '0' || c > '9') break;
+			i++;
+		}
+		return i;
+	}
+
+	private ValidationResult stringError(int i) {
+		if (i >= end) {
+			return error("Reached the end of the json in a string", i);
+		}
+		final int c = at(i);
+		final String message = c == '\\' ? "Invalid escape sequence"
+				: c < 0x20 ? "Unescaped control character in a string"
+				: "Invalid UTF-8 sequence";
+		return error(message, i);
+	}
+
+	// Only invoked for an invalid json, so the line and column are counted from the start
+	private ValidationResult error(String message, int i) {
+		long line = 1;
+		int lineStart = start;
+		for (int p = start; p < i; p++) {
+			if (at(p) == '\n') {
+				line++;
+				lineStart = p + 1;
+			}
+		}
+		return new ValidationResult(message, i - start, line, i - lineStart + 1);
+	}
+
+	// UTF-8 bytes, which are read 8 at a time as little-endian words
+	private static abstract class Utf8 extends JsonValidator {
+
+		private Utf8(int start, int end, int maxDepth) {
+			super(start, end, maxDepth);
+		}
+
+		abstract long word(int i);
+
+		@Override
+		final int skipByteOrderMark(int i) {
+			return end - i >= 3 && at(i) == 0xEF && at(i + 1) == 0xBB && at(i + 2) == 0xBF ? i + 3 : i;
+		}
+
+		@Override
+		final int skipWhitespaces(int i) {
+			if (i >= end || !isWhitespace(at(i))) { // Most values are not after white spaces
+				return i;
+			}
+			while (i + 8 <= end) {
+				final long word = word(i);
+				final long blanks = StructuralIndex.matches(word, SPACES) | StructuralIndex.matches(word, NEWLINES)
+						| StructuralIndex.matches(word, RETURNS) | StructuralIndex.matches(word, TABS);
+				if (blanks != StructuralIndex.HIGH_BITS) {
+					return i + (Long.numberOfTrailingZeros(~blanks & StructuralIndex.HIGH_BITS) >>> 3);
+				}
+				i += 8;
+			}
+			while (i < end && isWhitespace(at(i))) i++;
+			return i;
+		}
+
+		@Override
+		final int skipPlain(int i) {
+			while (i + 8 <= end) {
+				final long word = word(i);
+				final long events = StructuralIndex.matches(word, StructuralIndex.QUOTES)
+						| StructuralIndex.matches(word, StructuralIndex.BACKSLASHES)
+						| StructuralIndex.controls(word) | word & StructuralIndex.HIGH_BITS;
+				if (events != 0) {
+					return i + (Long.numberOfTrailingZeros(events) >>> 3);
+				}
+				i += 8;
+			}
+			while (i < end) {
+				final int c = at(i);
+				if (c == '\"' || c == '\\' || c < 0x20 || c >= 0x80) break;
+				i++;
+			}
+			return i;
+		}
+
+		@Override
+		final int sequenceLength(int i) {
+			final int lead = at(i);
+			final int length = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : 2;
+			if (i + length > end) return -1;
+
+			final int b1 = at(i + 1);
+			switch (lead) {
+				case 0xE0:
+					if (b1 < 0xA0 || b1 > 0xBF) return -1; // Overlong
+					break;
+				case 0xED:
+					if (b1 < 0x80 || b1 > 0x9F) return -1; // Surrogates
+					break;
+				case 0xF0:
+					if (b1 < 0x90 || b1 > 0xBF) return -1; // Overlong
+					break;
+				case 0xF4:
+					if (b1 < 0x80 || b1 > 0x8F) return -1; // Above U+10FFFF
+					break;
+				default:
+					if (lead < 0xC2 || lead > 0xF4 || b1 < 0x80 || b1 > 0xBF) return -1;
+			}
+			for (int n = 2; n < length; n++) {
+				if ((at(i + n) & 0xC0) != 0x80) return -1;
+			}
+			return length;
+		}
+
+	}
+
+	private static final class Bytes extends Utf8 {
+
+		private final byte[] bytes;
+		private final ByteBuffer words;
+
+		private Bytes(byte[] bytes, int start, int end, int maxDepth) {
+			super(start, end, maxDepth);
+			this.bytes = bytes;
+			this.words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		@Override
+		int at(int i) {
+			return bytes[i] & 0xFF;
+		}
+
+		@Override
+		long word(int i) {
+			return words.getLong(i);
+		}
+
+	}
+
+	// A buffer without an accessible array, such as a direct or memory-mapped buffer
+	private static final class Buffer extends Utf8 {
+
+		private final ByteBuffer buffer;
+
+		private Buffer(ByteBuffer buffer, int start, int end, int maxDepth) {
+			super(start, end, maxDepth);
+			this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN); // The order of the buffer is not changed
+		}
+
+		@Override
+		int at(int i) {
+			return buffer.get(i) & 0xFF;
+		}
+
+		@Override
+		long word(int i) {
+			return buffer.getLong(i);
+		}
+
+	}
+
+	private static final class Chars extends JsonValidator {
+
+		private final CharSequence chars;
+
+		private Chars(CharSequence chars, int start, int end, int maxDepth) {
+			super(start, end, maxDepth);
+			this.chars = chars;
+		}
+
+		@Override
+		int at(int i) {
+			return chars.charAt(i);
+		}
+
+		@Override
+		int skipByteOrderMark(int i) {
+			return i < end && chars.charAt(i) == '\uFEFF' ? i + 1 : i;
+		}
+
+		@Override
+		int skipWhitespaces(int i) {
+			while (i < end && isWhitespace(chars.charAt(i))) i++;
+			return i;
+		}
+
+		@Override
+		int skipPlain(int i) {
+			while (i < end) {
+				final char c = chars.charAt(i);
+				if (c == '\"' || c == '\\' || c < 0x20) break;
+				i++;
+			}
+			return i;
+		}
+
+		@Override
+		int sequenceLength(int i) {
+			return 1; // Any char is a valid sequence
+		}
+
+	}
+
+}
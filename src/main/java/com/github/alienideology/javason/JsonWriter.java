@@ -105,7 +105,7 @@ public class JsonWriter {
 		
 		try {
 			if (!memory.isEmpty()) json.append(",");
-			json.append("\"" + key + "\":");
+			json.append("\"" + Javason.escape(key) + "\":");
 			memory.add(new ModeWrapper(Mode.KEY, key));
 		} catch (IOException e) {
 			throw new JsonException(e);
@@ -150,9 +150,13 @@ public class JsonWriter {
 		
 		try {
 			if (value instanceof String) {
-				value = "\"" + (String) value + "\"";
+				value = "\"" + Javason.escape((String) value) + "\"";
+			}
+			if (value instanceof JsonString) {
+				json.append("\"").append(((JsonString) value).raw()).append("\"");
+			} else {
+				json.append(String.valueOf(value));
 			}
-			json.append(String.valueOf(value));
 			memory.add(new ModeWrapper(Mode.VALUE, value));
 		} catch (IOException e) {
 			throw new JsonException(e);
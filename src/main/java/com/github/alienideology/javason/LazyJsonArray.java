@@ -0,0 +1,228 @@
+package com.github.alienideology.javason;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * A json array which is parsed on demand.
+ * The elements are only indexed with their offsets when the array is first accessed,
+ * and an element is only parsed when its index is accessed. Parsed elements are cached.
+ * Syntax errors in an element are only thrown as {@link JsonException} when the element is parsed.
+ * 
+ * @author AlienIdeology
+ */
+class LazyJsonArray extends JsonArray {
+	
+	private final static Object UNPARSED = new Object();
+	
+	private final JsonTokenizer document;
+	private final int index;
+	
+	private int[] offsets; // Null until indexed, or after all elements are moved to the super array
+	private Object[] elements; // Parsed elements, or UNPARSED
+	private boolean loaded;
+	
+	// The index is at the "[" of the array in the document
+	LazyJsonArray(JsonTokenizer document, int index) {
+		this.document = document;
+		this.index = index;
+	}
+
+	@Override
+	public Object get(int index) {
+		if (!index()) return super.get(index);
+		
+		if (index < 0 || index >= offsets.length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + offsets.length);
+		}
+		if (elements[index] == UNPARSED) {
+			elements[index] = JsonParser.readLazyValue(document, offsets[index]);
+		}
+		return elements[index];
+	}
+
+	@Override
+	public boolean contains(Object object) {
+		load();
+		return super.contains(object);
+	}
+
+	@Override
+	public JsonArray add(Object object) throws IllegalArgumentException {
+		load();
+		return super.add(object);
+	}
+
+	@Override
+	public JsonArray add(int value) {
+		load();
+		return super.add(value);
+	}
+
+	@Override
+	public JsonArray add(double value) throws IllegalArgumentException {
+		load();
+		return super.add(value);
+	}
+
+	@Override
+	public JsonArray add(float value) throws IllegalArgumentException {
+		load();
+		return super.add(value);
+	}
+
+	@Override
+	public JsonArray add(long value) {
+		load();
+		return super.add(value);
+	}
+
+	@Override
+	public JsonArray put(int index, Object object) throws IllegalArgumentException {
+		load();
+		return super.put(index, object);
+	}
+
+	@Override
+	public JsonArray put(int index, int value) {
+		load();
+		return super.put(index, value);
+	}
+
+	@Override
+	public JsonArray put(int index, double value) throws IllegalArgumentException {
+		load();
+		return super.put(index, value);
+	}
+
+	@Override
+	public JsonArray put(int index, long value) {
+		load();
+		return super.put(index, value);
+	}
+
+	@Override
+	public JsonArray addAll(int[] values) {
+		load();
+		return super.addAll(values);
+	}
+
+	@Override
+	public JsonArray addAll(long[] values) {
+		load();
+		return super.addAll(values);
+	}
+
+	@Override
+	public JsonArray addAll(double[] values) throws IllegalArgumentException {
+		load();
+		return super.addAll(values);
+	}
+
+	@Override
+	public Object remove(int index) {
+		load();
+		return super.remove(index);
+	}
+
+	@Override
+	public Object remove(Object object) {
+		load();
+		return super.remove(object);
+	}
+
+	@Override
+	public int size() {
+		return index() ? offsets.length : super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public JsonArray clear() {
+		load();
+		return super.clear();
+	}
+
+	@Override
+	public Object[] getAsArray() {
+		load();
+		return super.getAsArray();
+	}
+
+	@Override
+	public Collection<Object> getAsCollection() {
+		load();
+		return super.getAsCollection();
+	}
+
+	@Override
+	public void forEach(Consumer<? super Object> arg0) {
+		load();
+		super.forEach(arg0);
+	}
+
+	@Override
+	public Iterator<Object> iterator() {
+		load();
+		return super.iterator();
+	}
+
+	@Override
+	public Spliterator<Object> spliterator() {
+		load();
+		return super.spliterator();
+	}
+
+	@Override
+	String toString(int indent, int layer) {
+		load();
+		return super.toString(indent, layer);
+	}
+	
+	// Return true if the elements are still held by this lazy array
+	private boolean index() {
+		if (loaded) return false;
+		if (offsets != null) return true;
+		
+		int[] offsets = new int[16];
+		int size = 0;
+		final JsonTokenizer tokenizer = new JsonTokenizer(document, index);
+		tokenizer.nextToken(); // [
+		while (tokenizer.nextToken() != JsonToken.END_ARRAY) {
+			if (size == offsets.length) {
+				offsets = Arrays.copyOf(offsets, size * 2);
+			}
+			offsets[size++] = tokenizer.getTokenIndex();
+			tokenizer.skipChildren();
+		}
+		
+		this.offsets = Arrays.copyOf(offsets, size);
+		this.elements = new Object[size];
+		Arrays.fill(elements, UNPARSED);
+		return true;
+	}
+	
+	// Parse all the elements, and move them to the super array
+	@Override
+	void load() {
+		if (!index()) return;
+		
+		final Collection<Object> array = super.getAsCollection();
+		for (int i = 0; i < offsets.length; i++) {
+			array.add(get(i));
+		}
+		offsets = null;
+		elements = null;
+		loaded = true;
+	}
+
+}
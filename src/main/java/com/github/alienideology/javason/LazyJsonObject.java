@@ -0,0 +1,134 @@
+package com.github.alienideology.javason;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * A json object which is parsed on demand.
+ * The keys are only indexed with the offsets of their values when the object is first accessed,
+ * and a value is only parsed when its key is accessed. Parsed values are cached.
+ * The keys are put in document order when they are indexed, so the order does not depend on which values are accessed.
+ * Syntax errors in a value are only thrown as {@link JsonException} when the value is parsed.
+ * 
+ * @author AlienIdeology
+ */
+class LazyJsonObject extends JsonObject {
+	
+	private final static Object UNPARSED = new Object(); // The value of a key until it is parsed
+	
+	private final JsonTokenizer document;
+	private final int index;
+	
+	private HashMap<String, Integer> offsets; // Offsets of values not parsed yet, null until indexed
+	
+	// The index is at the "{" of the object in the document
+	LazyJsonObject(JsonTokenizer document, int index) {
+		this.document = document;
+		this.index = index;
+	}
+
+	@Override
+	public JsonArray toJsonArray(boolean convertValues) {
+		load();
+		return super.toJsonArray(convertValues);
+	}
+
+	@Override
+	public Object get(String key) {
+		index();
+		final Integer offset = offsets.get(key);
+		if (offset != null) {
+			super.getAsMap().put(key, JsonParser.readLazyValue(document, offset));
+			offsets.remove(key);
+		}
+		return super.get(key);
+	}
+
+	@Override
+	public boolean contains(String key) {
+		index();
+		return super.contains(key);
+	}
+
+	@Override
+	public JsonObject put(String key, Object value) throws IllegalArgumentException {
+		index();
+		offsets.remove(key);
+		return super.put(key, value);
+	}
+
+	@Override
+	public Object remove(String key) {
+		get(key);
+		return super.remove(key);
+	}
+
+	@Override
+	public Entry<String, Object> removeByValue(Object value) {
+		load();
+		return super.removeByValue(value);
+	}
+
+	@Override
+	public int size() {
+		index();
+		return super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public JsonObject clear() {
+		index();
+		offsets.clear();
+		return super.clear();
+	}
+
+	@Override
+	public Map<String, Object> getAsMap() {
+		load();
+		return super.getAsMap();
+	}
+
+	@Override
+	String toString(int indent, int layer) {
+		load();
+		return super.toString(indent, layer);
+	}
+	
+	private void index() {
+		if (offsets != null) return;
+		
+		final HashMap<String, Integer> offsets = new HashMap<>();
+		final Map<String, Object> pairs = super.getAsMap();
+		final JsonTokenizer tokenizer = new JsonTokenizer(document, index);
+		tokenizer.nextToken(); // {
+		while (tokenizer.nextToken() != JsonToken.END_OBJECT) { // The token is a key
+			final String key = tokenizer.getText();
+			tokenizer.nextToken();
+			offsets.put(key, tokenizer.getTokenIndex());
+			pairs.put(key, UNPARSED); // Replaced in place when the value is parsed
+			tokenizer.skipChildren();
+		}
+		this.offsets = offsets;
+	}
+	
+	// Parse all the values
+	@Override
+	void load() {
+		index();
+		if (offsets.isEmpty()) return; // Loaded, so a frozen object is only read
+		final Map<String, Object> pairs = super.getAsMap();
+		for (Map.Entry<String, Integer> entry : offsets.entrySet()) {
+			pairs.put(entry.getKey(), JsonParser.readLazyValue(document, entry.getValue()));
+		}
+		offsets.clear();
+	}
+
+}
@@ -0,0 +1,297 @@
+package com.github.alienideology.javason;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * A parser for parsing a large UTF-8 json array in parallel, such as a file of records.
+ * <p>
+ * The input is split into chunks, and each chunk is parsed on a {@link ForkJoinPool} from a speculated element boundary,
+ * which is a {@code ","} between {@code "}"} or {@code "]"} and {@code "{"} or {@code "["}.
+ * Since a boundary may be speculated inside a string or a nested array, each chunk is only used if the previous chunk
+ * ends exactly at its boundary. Otherwise, the elements are parsed again from the true boundary,
+ * so the result is always the same as {@link JsonParser#parseArray()}.
+ * Arrays of objects or arrays are parsed in parallel, arrays of other values are parsed sequentially.
+ *
+ * @author AlienIdeology
+ */
+public class ParallelJsonParser {
+
+	/**
+	 * The default minimum size of the chunks, in bytes.
+	 */
+	public final static int DEFAULT_CHUNK_SIZE = 1024*1024;
+
+	// The input is either an array, or buffers which are read in order
+	private final byte[] bytes; // Nullable
+	private final ByteRegions regions; // Nullable
+	private final long length;
+
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private SymbolTable symbols = new SymbolTable();
+	private int maxDepth = JsonTokenizer.DEFAULT_MAX_DEPTH;
+
+	private long end; // Index of the last non-whitespace byte, the closing "]"
+
+	/**
+	 * Construct a parser by the given UTF-8 bytes.
+	 *
+	 * @param json The json bytes.
+	 */
+	public ParallelJsonParser(byte[] json) {
+		this.bytes = json;
+		this.regions = null;
+		this.length = json.length;
+	}
+
+	/**
+	 * Construct a parser by the remaining UTF-8 bytes of the given buffer.
+	 * The position of the buffer is not changed.
+	 *
+	 * @param json The json buffer.
+	 */
+	public ParallelJsonParser(ByteBuffer json) {
+		this(new ByteBuffer[] {json.slice()});
+	}
+
+	/**
+	 * Construct a parser by the given UTF-8 file.
+	 * The file is memory-mapped, see {@link JsonTokenizer#JsonTokenizer(Path)}, so it can be larger than 2G.
+	 *
+	 * @param path The path of the file.
+	 * @throws IOException
+	 * 		If an I/O error occurs.
+	 */
+	public ParallelJsonParser(Path path) throws IOException {
+		this(JsonTokenizer.map(path));
+	}
+
+	private ParallelJsonParser(ByteBuffer[] regions) {
+		this.bytes = null;
+		this.regions = new ByteRegions(regions);
+		this.length = this.regions.length();
+	}
+
+	/**
+	 * Set the pool to parse the chunks in, the {@link ForkJoinPool#commonPool()} by default.
+	 *
+	 * @param pool The pool.
+	 * @return The parser for chaining.
+	 */
+	public ParallelJsonParser setPool(ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
+
+	/**
+	 * Set the minimum size of the chunks, the input is split into at most 4 chunks per thread of the pool.
+	 *
+	 * @param chunkSize The minimum size, in bytes.
+	 * @return The parser for chaining.
+	 */
+	public ParallelJsonParser setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be positive!");
+		}
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * Set the table to intern the keys of the parsed objects with, which is shared by the chunks.
+	 *
+	 * @param symbols The table, or null to not intern keys.
+	 * @return The parser for chaining.
+	 */
+	public ParallelJsonParser setSymbolTable(SymbolTable symbols) {
+		this.symbols = symbols;
+		return this;
+	}
+
+	/**
+	 * Set the maximum depth of nested objects and arrays, see {@link JsonTokenizer#setMaxDepth(int)}.
+	 *
+	 * @param maxDepth The maximum depth.
+	 * @return The parser for chaining.
+	 */
+	public ParallelJsonParser setMaxDepth(int maxDepth) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("The maximum depth must be positive!");
+		}
+		this.maxDepth = maxDepth;
+		return this;
+	}
+
+	/**
+	 * Parse the array in parallel.
+	 *
+	 * @return The parsed array, with the elements in order.
+	 * @throws JsonException
+	 * 		For any syntax errors.
+	 */
+	public JsonArray parseArray() throws JsonException {
+		end = length - 1;
+		while (end >= 0 && isWhitespace(byteAt(end))) end--;
+
+		final int chunks = (int) Math.max(1, Math.min(pool.getParallelism() * 4L, length / chunkSize));
+		final long[] splits = new long[chunks + 1];
+		for (int i = 0; i <= chunks; i++) {
+			splits[i] = i == chunks ? Long.MAX_VALUE : length / chunks * i;
+		}
+
+		final List<ForkJoinTask<Range>> tasks = new ArrayList<>(chunks); // The task of a chunk is at the index of the chunk - 1
+		for (int i = 1; i < chunks; i++) {
+			final long from = splits[i];
+			final long stop = splits[i + 1];
+			tasks.add(pool.submit(() -> speculate(from, stop)));
+		}
+
+		final List<Object> elements = new ArrayList<>();
+		try {
+			// The first chunk starts at the true start of the array
+			final JsonTokenizer root = tokenizer(0);
+			if (root.nextToken() != JsonToken.START_ARRAY) {
+				throw new JsonException("A Json array must to starts with \"[\"!");
+			}
+			Range range = parseRange(root, 0, splits[1]);
+			elements.addAll(range.elements);
+
+			for (int i = 1; i < chunks && !range.ended; i++) {
+				final Range speculated = tasks.get(i - 1).join();
+				if (speculated == null) continue; // No boundary in the chunk
+
+				final long position = range.end;
+				if (position < speculated.start) { // Catch up to the speculated boundary
+					range = parseRange(elementTokenizer(position), position, speculated.start);
+					elements.addAll(range.elements);
+					if (range.ended) break;
+				}
+				if (range.end == speculated.start) { // The boundary is true
+					range = speculated;
+					elements.addAll(range.elements);
+				}
+			}
+
+			if (!range.ended) {
+				range = parseRange(elementTokenizer(range.end), range.end, Long.MAX_VALUE);
+				elements.addAll(range.elements);
+			}
+		} finally {
+			for (ForkJoinTask<Range> task : tasks) {
+				task.cancel(false);
+			}
+		}
+		return new JsonArray(elements);
+	}
+
+	// Parse the chunk from its first speculated boundary, or return null if there is none
+	private Range speculate(long from, long stop) {
+		long start = findBoundary(from, stop);
+		while (start >= 0) {
+			final JsonTokenizer tokenizer = elementTokenizer(start);
+			long retry;
+			try {
+				final Range range = parseRange(tokenizer, start, stop);
+				if (!range.ended || range.end == end) {
+					return range;
+				}
+				retry = range.end; // Closed a nested array
+			} catch (JsonException e) {
+				retry = start + tokenizer.getTokenOffset();
+			}
+			start = findBoundary(Math.max(retry, start + 1), stop);
+		}
+		return null;
+	}
+
+	// Parse the elements until the array ends, or until an element starts at or after the stop index
+	private Range parseRange(JsonTokenizer tokenizer, long start, long stop) {
+		final List<Object> elements = new ArrayList<>();
+		while (true) {
+			JsonToken token = tokenizer.nextToken();
+			final long offset = start + tokenizer.getTokenOffset();
+			if (token == JsonToken.END_ARRAY) {
+				return new Range(start, offset, elements, true);
+			} else if (offset >= stop) {
+				return new Range(start, offset, elements, false);
+			}
+
+			final TreeBuilder builder = new TreeBuilder();
+			while (!builder.add(tokenizer, token)) {
+				token = tokenizer.nextToken();
+			}
+			elements.add(builder.getValue());
+		}
+	}
+
+	// The index of the element after the first boundary in the range, or -1
+	private long findBoundary(long from, long stop) {
+		for (long i = Math.max(from, 1); i < Math.min(stop, length); i++) {
+			if (byteAt(i) != ',') continue;
+
+			long before = i - 1;
+			while (before > 0 && isWhitespace(byteAt(before))) before--;
+			final byte closing = byteAt(before);
+			if (closing != '}' && closing != ']') continue;
+
+			long after = i + 1;
+			while (after < length && isWhitespace(byteAt(after))) after++;
+			if (after < length && (byteAt(after) == '{' || byteAt(after) == '[')) {
+				return after;
+			}
+		}
+		return -1;
+	}
+
+	// A tokenizer which starts at the index, offsets of its tokens are relative to the index
+	private JsonTokenizer tokenizer(long start) {
+		final JsonTokenizer tokenizer;
+		if (bytes != null) {
+			tokenizer = new JsonTokenizer(bytes, (int) start, bytes.length - (int) start);
+		} else {
+			tokenizer = new JsonTokenizer(regions.from(start));
+		}
+		tokenizer.setSymbolTable(symbols);
+		tokenizer.setMaxDepth(maxDepth);
+		return tokenizer;
+	}
+
+	// A tokenizer which starts at an element of the array
+	private JsonTokenizer elementTokenizer(long start) {
+		final JsonTokenizer tokenizer = tokenizer(start);
+		tokenizer.startInArray();
+		return tokenizer;
+	}
+
+	private byte byteAt(long index) {
+		return bytes != null ? bytes[(int) index] : regions.get(index);
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+
+	// Elements parsed from a boundary
+	private static class Range {
+		private final long start;
+		private final long end; // Index of the first element after the range, or of the closing "]"
+		private final List<Object> elements;
+		private final boolean ended; // True if the range ends with the closing "]"
+
+		private Range(long start, long end, List<Object> elements, boolean ended) {
+			this.start = start;
+			this.end = end;
+			this.elements = elements;
+			this.ended = ended;
+		}
+	}
+
+}
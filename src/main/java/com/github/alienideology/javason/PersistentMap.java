@@ -0,0 +1,296 @@
+package com.github.alienideology.javason;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * The pairs of an {@link ImmutableJsonObject}, in a hash array mapped trie.
+ * Each node has a bitmap of the 32 slots used by 5 bits of the hashes, and an array with a pair for each used slot,
+ * which is a key and its value, or null and the node of the next 5 bits.
+ * A new map copies the nodes on the path to the key, and shares the rest with this map.
+ * The map is unmodifiable, and the nodes are never changed after they are created, so maps can be shared by threads.
+ * The pairs are in the order of their hashes, not in insertion order.
+ *
+ * @author AlienIdeology
+ */
+final class PersistentMap extends AbstractMap<String, Object> {
+
+	final static PersistentMap EMPTY = new PersistentMap(new Node(0, new Object[0]), 0);
+
+	private final static Object NOT_FOUND = new Object();
+
+	private final Node root;
+	private final int size;
+
+	private PersistentMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	// Return a map with the pair, which is this map if the key already has the value
+	PersistentMap with(String key, Object value) {
+		if (key == null) {
+			throw new IllegalArgumentException("The key is null!");
+		}
+		final boolean[] added = new boolean[1];
+		final Node root = this.root.with(0, hash(key), key, value, added);
+		return root == this.root ? this : new PersistentMap(root, added[0] ? size + 1 : size);
+	}
+
+	// Return a map without the key, which is this map if there is no such key
+	PersistentMap without(String key) {
+		if (key == null) return this;
+		final Node root = this.root.without(0, hash(key), key);
+		return root == this.root ? this : root == null ? EMPTY : new PersistentMap(root, size - 1);
+	}
+
+	// Visit the pairs without creating entries
+	void forEachPair(BiConsumer<String, Object> action) {
+		root.forEachPair(action);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String && root.find(0, hash(key), (String) key) != NOT_FOUND;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (!(key instanceof String)) return null;
+		final Object value = root.find(0, hash(key), (String) key);
+		return value == NOT_FOUND ? null : value;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new PairIterator(root);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	private static int hash(Object key) {
+		final int hash = key.hashCode();
+		return hash ^ hash >>> 16;
+	}
+
+	private static int slot(int hash, int shift) {
+		return 1 << ((hash >>> shift) & 31);
+	}
+
+	// A node of the keys with the same hash bits until the shift, or of the keys with the same hash if the bitmap is 0
+	private static final class Node {
+
+		private final int bitmap; // Used slots, or 0 for a node of colliding keys
+		private final Object[] pairs;
+
+		Node(int bitmap, Object[] pairs) {
+			this.bitmap = bitmap;
+			this.pairs = pairs;
+		}
+
+		Object find(int shift, int hash, String key) {
+			if (bitmap == 0) {
+				for (int i = 0; i < pairs.length; i += 2) {
+					if (key.equals(pairs[i])) return pairs[i + 1];
+				}
+				return NOT_FOUND;
+			}
+
+			final int slot = slot(hash, shift);
+			if ((bitmap & slot) == 0) return NOT_FOUND;
+			final int i = index(slot);
+			if (pairs[i] == null) {
+				return ((Node) pairs[i + 1]).find(shift + 5, hash, key);
+			}
+			return key.equals(pairs[i]) ? pairs[i + 1] : NOT_FOUND;
+		}
+
+		Node with(int shift, int hash, String key, Object value, boolean[] added) {
+			if (bitmap == 0) {
+				return withColliding(shift, hash, key, value, added);
+			}
+
+			final int slot = slot(hash, shift);
+			final int i = index(slot);
+			if ((bitmap & slot) == 0) {
+				final Object[] pairs = new Object[this.pairs.length + 2];
+				System.arraycopy(this.pairs, 0, pairs, 0, i);
+				pairs[i] = key;
+				pairs[i + 1] = value;
+				System.arraycopy(this.pairs, i, pairs, i + 2, this.pairs.length - i);
+				added[0] = true;
+				return new Node(bitmap | slot, pairs);
+			}
+
+			final Object existingKey = pairs[i];
+			final Object existing = pairs[i + 1];
+			if (existingKey == null) {
+				final Node child = ((Node) existing).with(shift + 5, hash, key, value, added);
+				return child == existing ? this : replace(i + 1, child);
+			} else if (key.equals(existingKey)) {
+				return existing == value ? this : replace(i + 1, value);
+			}
+
+			added[0] = true;
+			final Node child = split(shift + 5, (String) existingKey, existing, hash, key, value);
+			final Object[] pairs = this.pairs.clone();
+			pairs[i] = null;
+			pairs[i + 1] = child;
+			return new Node(bitmap, pairs);
+		}
+
+		// Return null if the node is empty without the key
+		Node without(int shift, int hash, String key) {
+			if (bitmap == 0) {
+				for (int i = 0; i < pairs.length; i += 2) {
+					if (key.equals(pairs[i])) {
+						return pairs.length == 2 ? null : new Node(0, remove(i));
+					}
+				}
+				return this;
+			}
+
+			final int slot = slot(hash, shift);
+			if ((bitmap & slot) == 0) return this;
+			final int i = index(slot);
+			if (pairs[i] == null) {
+				final Node child = ((Node) pairs[i + 1]).without(shift + 5, hash, key);
+				if (child == pairs[i + 1]) {
+					return this;
+				} else if (child != null) {
+					return replace(i + 1, child);
+				}
+			} else if (!key.equals(pairs[i])) {
+				return this;
+			}
+			return bitmap == slot ? null : new Node(bitmap ^ slot, remove(i));
+		}
+
+		void forEachPair(BiConsumer<String, Object> action) {
+			for (int i = 0; i < pairs.length; i += 2) {
+				if (pairs[i] == null) {
+					((Node) pairs[i + 1]).forEachPair(action);
+				} else {
+					action.accept((String) pairs[i], pairs[i + 1]);
+				}
+			}
+		}
+
+		private Node withColliding(int shift, int hash, String key, Object value, boolean[] added) {
+			if (pairs.length == 0) { // The empty root
+				added[0] = true;
+				return new Node(slot(hash, shift), new Object[] {key, value});
+			}
+			final int collidingHash = hash(pairs[0]);
+			if (hash != collidingHash) { // Move this node down a level
+				return new Node(slot(collidingHash, shift), new Object[] {null, this}).with(shift, hash, key, value, added);
+			}
+			for (int i = 0; i < pairs.length; i += 2) {
+				if (key.equals(pairs[i])) {
+					return pairs[i + 1] == value ? this : replace(i + 1, value);
+				}
+			}
+			final Object[] pairs = new Object[this.pairs.length + 2];
+			System.arraycopy(this.pairs, 0, pairs, 0, this.pairs.length);
+			pairs[pairs.length - 2] = key;
+			pairs[pairs.length - 1] = value;
+			added[0] = true;
+			return new Node(0, pairs);
+		}
+
+		// The node of two keys, which are split by their hashes from the shift
+		private static Node split(int shift, String key1, Object value1, int hash2, String key2, Object value2) {
+			final int hash1 = hash(key1);
+			if (hash1 == hash2) {
+				return new Node(0, new Object[] {key1, value1, key2, value2});
+			}
+			final boolean[] added = new boolean[1];
+			return new Node(slot(hash1, shift), new Object[] {key1, value1}).with(shift, hash2, key2, value2, added);
+		}
+
+		private int index(int slot) {
+			return Integer.bitCount(bitmap & (slot - 1)) * 2;
+		}
+
+		private Node replace(int i, Object value) {
+			final Object[] pairs = this.pairs.clone();
+			pairs[i] = value;
+			return new Node(bitmap, pairs);
+		}
+
+		private Object[] remove(int i) {
+			final Object[] pairs = new Object[this.pairs.length - 2];
+			System.arraycopy(this.pairs, 0, pairs, 0, i);
+			System.arraycopy(this.pairs, i + 2, pairs, i, pairs.length - i);
+			return pairs;
+		}
+
+	}
+
+	// Depth first, with a stack of the nodes on the path
+	private static final class PairIterator implements Iterator<Entry<String, Object>> {
+
+		private final Node[] nodes = new Node[8]; // 32 bits of hashes in 5 bits per level, and the colliding keys
+		private final int[] indexes = new int[8];
+		private int depth;
+
+		PairIterator(Node root) {
+			nodes[0] = root;
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return depth >= 0;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (depth < 0) {
+				throw new NoSuchElementException();
+			}
+			final Object[] pairs = nodes[depth].pairs;
+			final int i = indexes[depth];
+			indexes[depth] += 2;
+			final Entry<String, Object> entry = new SimpleImmutableEntry<>((String) pairs[i], pairs[i + 1]);
+			advance();
+			return entry;
+		}
+
+		// Move to the next pair, or set the depth to -1
+		private void advance() {
+			while (depth >= 0) {
+				final Object[] pairs = nodes[depth].pairs;
+				final int i = indexes[depth];
+				if (i >= pairs.length) {
+					nodes[depth--] = null;
+				} else if (pairs[i] == null) {
+					indexes[depth] += 2;
+					nodes[++depth] = (Node) pairs[i + 1];
+					indexes[depth] = 0;
+				} else {
+					return;
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.github.alienideology.javason;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The elements of an {@link ImmutableJsonArray}, in a trie of 32 children per node.
+ * The leaves hold the elements, and a node is only as long as its last used child, so small arrays stay small.
+ * A new vector copies the nodes on the path to the index, and shares the rest with this vector.
+ * The vector is unmodifiable, and the nodes are never changed after they are created, so vectors can be shared by threads.
+ *
+ * @author AlienIdeology
+ */
+final class PersistentVector extends AbstractList<Object> implements RandomAccess {
+
+	final static PersistentVector EMPTY = new PersistentVector(new Object[0], 0, 0);
+
+	private final Object[] root;
+	private final int shift; // Of the index bits of the root, 0 if the root is a leaf
+	private final int size;
+
+	private PersistentVector(Object[] root, int shift, int size) {
+		this.root = root;
+		this.shift = shift;
+		this.size = size;
+	}
+
+	// A vector of the elements, built a level at a time
+	static PersistentVector of(Object[] elements) {
+		if (elements.length == 0) {
+			return EMPTY;
+		}
+		Object[] nodes = group(elements);
+		int shift = 0;
+		while (nodes.length > 1) {
+			nodes = group(nodes);
+			shift += 5;
+		}
+		return new PersistentVector((Object[]) nodes[0], shift, elements.length);
+	}
+
+	// Return a vector with the element at the index, which is between 0 and the size, to add the element
+	PersistentVector with(int index, Object element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (index < size && get(index) == element) {
+			return this;
+		}
+
+		if (index == size && size == 1 << (shift + 5)) { // The trie is full
+			return new PersistentVector(with(new Object[] {root}, shift + 5, index, element), shift + 5, size + 1);
+		}
+		return new PersistentVector(with(root, shift, index, element), shift, index == size ? size + 1 : size);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Object get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		Object[] node = root;
+		for (int level = shift; level > 0; level -= 5) {
+			node = (Object[]) node[(index >>> level) & 31];
+		}
+		return node[index & 31];
+	}
+
+	// Group the nodes of a level by 32 into the nodes of the next level
+	private static Object[] group(Object[] nodes) {
+		final Object[] parents = new Object[(nodes.length + 31) >>> 5];
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = Arrays.copyOfRange(nodes, i << 5, Math.min(nodes.length, (i + 1) << 5));
+		}
+		return parents;
+	}
+
+	// Copy the nodes on the path to the index, which are null past the end of the vector
+	private static Object[] with(Object[] node, int level, int index, Object element) {
+		final int child = (index >>> level) & 31;
+		final Object[] copy = node == null ? new Object[child + 1] : Arrays.copyOf(node, Math.max(node.length, child + 1));
+		if (level == 0) {
+			copy[child] = element;
+		} else {
+			copy[child] = with((Object[]) copy[child], level - 5, index, element);
+		}
+		return copy;
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.github.alienideology.javason;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The first stage of parsing UTF-8 json, which finds the positions of the structural characters
+ * ({@code {}[]:,}) outside of strings. The bytes are classified 8 at a time using SWAR on long words,
+ * so whitespace, numbers and string bodies without quotes or backslashes are skipped a word at a time.
+ *
+ * @author AlienIdeology
+ */
+final class StructuralIndex {
+
+	private final static long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+	final static long HIGH_BITS = 0x8080808080808080L; // Set in the bytes of multi-byte UTF-8 sequences
+	private final static long CASE_BIT = 0x2020202020202020L;
+
+	// Each byte of the word is the char
+	final static long QUOTES = 0x2222222222222222L;
+	final static long BACKSLASHES = 0x5C5C5C5C5C5C5C5CL;
+	private final static long OPENINGS = 0x7B7B7B7B7B7B7B7BL; // "{", or "[" with the case bit
+	private final static long CLOSINGS = 0x7D7D7D7D7D7D7D7DL; // "}", or "]" with the case bit
+	private final static long COLONS = 0x3A3A3A3A3A3A3A3AL;
+	private final static long COMMAS = 0x2C2C2C2C2C2C2C2CL;
+	private final static long CONTROLS = 0x6060606060606060L; // Added to the low bits, to carry into the high bit from 0x20
+
+	private StructuralIndex() {}
+
+	/**
+	 * Find the structural characters in a range of the bytes.
+	 *
+	 * @param bytes The json bytes.
+	 * @param start The index of the first byte.
+	 * @param end The index after the last byte.
+	 * @return The sorted indexes of the structural characters.
+	 */
+	static int[] build(byte[] bytes, int start, int end) {
+		final ByteBuffer words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		int[] positions = new int[Math.max(16, (end - start) >>> 3)];
+		int count = 0;
+		boolean inString = false;
+		int escaped = -1; // Index of the byte escaped by a backslash
+
+		int p = start;
+		for (; p + 8 <= end; p += 8) {
+			final long word = words.getLong(p);
+			final long folded = word | CASE_BIT;
+			long events = matches(word, QUOTES) | matches(word, BACKSLASHES)
+					| matches(folded, OPENINGS) | matches(folded, CLOSINGS)
+					| matches(word, COLONS) | matches(word, COMMAS);
+
+			while (events != 0) { // Handle the matched bytes in order
+				final int i = p + (Long.numberOfTrailingZeros(events) >>> 3);
+				events &= events - 1;
+				if (i == escaped) continue;
+
+				final byte b = bytes[i];
+				if (b == '\"') {
+					inString = !inString;
+				} else if (b == '\\') {
+					if (inString) escaped = i + 1;
+				} else if (!inString) {
+					if (count == positions.length) {
+						positions = Arrays.copyOf(positions, count * 2);
+					}
+					positions[count++] = i;
+				}
+			}
+		}
+
+		for (; p < end; p++) { // The last bytes which do not fill a word
+			if (p == escaped) continue;
+
+			final byte b = bytes[p];
+			if (b == '\"') {
+				inString = !inString;
+			} else if (b == '\\') {
+				if (inString) escaped = p + 1;
+			} else if (!inString && isStructural(b)) {
+				if (count == positions.length) {
+					positions = Arrays.copyOf(positions, count * 2);
+				}
+				positions[count++] = p;
+			}
+		}
+
+		return Arrays.copyOf(positions, count);
+	}
+
+	static boolean isStructural(byte b) {
+		return b == '{' || b == '}' || b == '[' || b == ']' || b == ':' || b == ',';
+	}
+
+	// The high bit of each byte is set if the byte of the word equals to the byte of the pattern
+	static long matches(long word, long pattern) {
+		final long diff = word ^ pattern;
+		return ~(((diff & LOW_BITS) + LOW_BITS) | diff | LOW_BITS);
+	}
+
+	// The high bit of each byte is set if the byte of the word is a control char, which is below 0x20
+	static long controls(long word) {
+		return ~(((word & LOW_BITS) + CONTROLS) | word | LOW_BITS);
+	}
+
+}
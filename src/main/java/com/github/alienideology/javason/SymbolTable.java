@@ -0,0 +1,212 @@
+package com.github.alienideology.javason;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A table of canonical key strings, so that keys which appear many times in a json,
+ * such as the keys of an array of records, are only created once.
+ * Keys are hashed and compared in the buffer of the {@link JsonTokenizer}, without creating a string for the known ones.
+ * The hash is the same as {@link String#hashCode()}, which is cached by the canonical strings.
+ * <p>
+ * A table is bounded by a maximum amount of keys, further keys are not interned.
+ * A table can be shared by parsers in different threads.
+ *
+ * @author AlienIdeology
+ */
+public class SymbolTable {
+
+	/**
+	 * The default maximum amount of keys.
+	 */
+	public final static int DEFAULT_MAX_SIZE = 1024;
+
+	private final int maxSize;
+	private volatile String[] entries = new String[16]; // Open addressing with linear probing
+	private int size;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private volatile boolean full;
+	private long hitsWhenFull; // The counts when the table became full
+	private long missesWhenFull;
+
+	/**
+	 * Construct a table with the {@link #DEFAULT_MAX_SIZE}.
+	 */
+	public SymbolTable() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Construct a table with a maximum amount of keys.
+	 *
+	 * @param maxSize The maximum amount of keys.
+	 */
+	public SymbolTable(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("The maximum size must not be negative!");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Get the canonical string of a range of chars.
+	 *
+	 * @param chars The chars.
+	 * @param start The index of the first char.
+	 * @param end The index after the last char.
+	 * @param hash The {@link String#hashCode()} of the chars.
+	 * @return The string.
+	 */
+	String intern(char[] chars, int start, int end, int hash) {
+		final String[] entries = this.entries;
+		final int mask = entries.length - 1;
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			final String entry = entries[i];
+			if (entry == null) break;
+			if (entry.hashCode() == hash && matches(entry, chars, start, end)) {
+				hits.increment();
+				return entry;
+			}
+		}
+		return add(new String(chars, start, end - start), hash);
+	}
+
+	/**
+	 * Get the canonical string of a range of ASCII bytes.
+	 *
+	 * @param bytes The bytes, which are all ASCII.
+	 * @param start The index of the first byte.
+	 * @param end The index after the last byte.
+	 * @param hash The {@link String#hashCode()} of the chars of the bytes.
+	 * @return The string.
+	 */
+	String intern(byte[] bytes, int start, int end, int hash) {
+		final String[] entries = this.entries;
+		final int mask = entries.length - 1;
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			final String entry = entries[i];
+			if (entry == null) break;
+			if (entry.hashCode() == hash && matches(entry, bytes, start, end)) {
+				hits.increment();
+				return entry;
+			}
+		}
+		char[] chars = new char[end - start];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) bytes[start + i];
+		}
+		return add(new String(chars), hash);
+	}
+
+	private synchronized String add(String key, int hash) {
+		misses.increment();
+		if (size >= maxSize) {
+			if (!full) {
+				hitsWhenFull = hits.sum();
+				missesWhenFull = misses.sum();
+				full = true;
+			}
+			return key;
+		}
+
+		String[] entries = this.entries;
+		int i = probe(entries, key, hash);
+		if (entries[i] != null) { // Added by another thread
+			return entries[i];
+		}
+		if ((size + 1) * 2 > entries.length) { // Keep the load factor under 1/2
+			final String[] grown = new String[entries.length * 2];
+			for (String entry : entries) {
+				if (entry != null) grown[probe(grown, entry, entry.hashCode())] = entry;
+			}
+			entries = grown;
+			i = probe(entries, key, hash);
+		}
+		entries[i] = key;
+		size++;
+		this.entries = entries;
+		return key;
+	}
+
+	// The table is full, and most keys since are not found, such as ids which are never repeated
+	// Then a shared table is replaced, see BufferRecycler#symbols()
+	boolean isStale() {
+		if (!full) return false;
+		final long missed;
+		final long hit;
+		synchronized (this) {
+			missed = misses.sum() - missesWhenFull;
+			hit = hits.sum() - hitsWhenFull;
+		}
+		return missed >= maxSize && missed > hit;
+	}
+
+	// Index of the key, or of the empty slot for it
+	private static int probe(String[] entries, String key, int hash) {
+		final int mask = entries.length - 1;
+		int i = hash & mask;
+		while (entries[i] != null && !entries[i].equals(key)) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private static boolean matches(String entry, char[] chars, int start, int end) {
+		if (entry.length() != end - start) return false;
+		for (int i = start; i < end; i++) {
+			if (entry.charAt(i - start) != chars[i]) return false;
+		}
+		return true;
+	}
+
+	private static boolean matches(String entry, byte[] bytes, int start, int end) {
+		if (entry.length() != end - start) return false;
+		for (int i = start; i < end; i++) {
+			if (entry.charAt(i - start) != bytes[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Get the amount of interned keys.
+	 *
+	 * @return The amount.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Get the maximum amount of keys.
+	 *
+	 * @return The maximum amount.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Get the amount of keys found in the table.
+	 *
+	 * @return The amount of hits.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Get the amount of keys not found in the table, including those not added because the table is full.
+	 *
+	 * @return The amount of misses.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "SymbolTable{size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + "}";
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.github.alienideology.javason;
+
+import java.util.Arrays;
+
+import com.github.alienideology.javason.exception.JsonException;
+
+/**
+ * Builds a value from the tokens of a {@link JsonTokenizer}, one token at a time.
+ * The open objects and arrays are kept in a stack instead of the call stack,
+ * so the depth is not limited by the thread, and building can be resumed after any token.
+ *
+ * @author AlienIdeology
+ */
+final class TreeBuilder {
+
+	private Object[] containers = new Object[16]; // CompactMap for objects, ValueList for arrays
+	private String[] keys = new String[16]; // Key of each container in its parent object
+	private int depth;
+	private String key;
+	private Object value;
+	private final boolean stringViews; // Strings are JsonString views
+	private final boolean lazyNumbers; // Numbers are JsonNumbers
+
+	TreeBuilder() {
+		this(false, false);
+	}
+
+	TreeBuilder(boolean stringViews, boolean lazyNumbers) {
+		this.stringViews = stringViews;
+		this.lazyNumbers = lazyNumbers;
+	}
+
+	/**
+	 * Add the current token of the tokenizer.
+	 *
+	 * @param tokenizer The tokenizer.
+	 * @param token The current token.
+	 * @return True if the value is complete, see {@link #getValue()}.
+	 * @throws JsonException
+	 * 		If the token is not a part of a value.
+	 */
+	boolean add(JsonTokenizer tokenizer, JsonToken token) throws JsonException {
+		final Object value;
+		switch (token) {
+			case START_OBJECT:
+			case START_ARRAY:
+				if (depth == containers.length) {
+					containers = Arrays.copyOf(containers, depth * 2);
+					keys = Arrays.copyOf(keys, depth * 2);
+				}
+				containers[depth] = token == JsonToken.START_OBJECT ? new CompactMap() : new ValueList();
+				keys[depth++] = key;
+				return false;
+			case KEY:
+				key = tokenizer.getText();
+				return false;
+			case END_OBJECT:
+				value = new JsonObject((CompactMap) containers[--depth]);
+				key = keys[depth];
+				containers[depth] = null;
+				break;
+			case END_ARRAY:
+				final ValueList elements = (ValueList) containers[--depth];
+				elements.trim();
+				value = new JsonArray(elements);
+				key = keys[depth];
+				containers[depth] = null;
+				break;
+			case STRING:
+				value = stringViews ? tokenizer.getTextView() : tokenizer.getText();
+				break;
+			case NUMBER:
+				if (lazyNumbers) {
+					value = new JsonNumber(tokenizer);
+					break;
+				}
+				if (depth != 0 && containers[depth - 1] instanceof ValueList && addNumber((ValueList) containers[depth - 1], tokenizer)) {
+					return false;
+				}
+				value = tokenizer.getNumber();
+				break;
+			case TRUE:
+				value = Boolean.TRUE;
+				break;
+			case FALSE:
+				value = Boolean.FALSE;
+				break;
+			case NULL:
+				value = null;
+				break;
+			default:
+				throw new JsonException("Unexpected token " + token + " at index: " + tokenizer.getTokenOffset());
+		}
+
+		if (depth == 0) {
+			this.value = value;
+			return true;
+		}
+		final Object parent = containers[depth - 1];
+		if (parent instanceof CompactMap) {
+			((CompactMap) parent).put(key, value);
+		} else {
+			((ValueList) parent).add(value);
+		}
+		return false;
+	}
+
+	// Add the number to the array without boxing it, if it is an int, a long or a double
+	private static boolean addNumber(ValueList array, JsonTokenizer tokenizer) {
+		switch (tokenizer.getNumberType()) {
+			case INT:
+				array.addInt((int) tokenizer.getLong());
+				return true;
+			case LONG:
+				array.addLong(tokenizer.getLong());
+				return true;
+			case DOUBLE:
+				array.addDouble(tokenizer.getDouble());
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Get the value, once it is complete.
+	 *
+	 * @return The value.
+	 */
+	// Nullable
+	Object getValue() {
+		return value;
+	}
+
+	/**
+	 * Check if no token has been added.
+	 *
+	 * @return True if there is no open object or array.
+	 */
+	boolean isEmpty() {
+		return depth == 0;
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.github.alienideology.javason;
+
+/**
+ * The result of {@link Javason#validate(CharSequence)}.
+ * If the json is not valid, the result has the first error and its position.
+ *
+ * @author AlienIdeology
+ */
+public class ValidationResult {
+
+	final static ValidationResult VALID = new ValidationResult(null, -1, -1, -1);
+
+	private final String message; // Nullable
+	private final long offset;
+	private final long line;
+	private final long column;
+
+	ValidationResult(String message, long offset, long line, long column) {
+		this.message = message;
+		this.offset = offset;
+		this.line = line;
+		this.column = column;
+	}
+
+	/**
+	 * Check if the json is valid.
+	 *
+	 * @return True if the json is valid.
+	 */
+	public boolean isValid() {
+		return message == null;
+	}
+
+	/**
+	 * Get the message of the error.
+	 *
+	 * @return The message, or null if the json is valid.
+	 */
+	// Nullable
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * Get the index of the error, in chars, or in bytes for byte input.
+	 *
+	 * @return The index, or -1 if the json is valid.
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Get the line of the error, starting from 1.
+	 *
+	 * @return The line, or -1 if the json is valid.
+	 */
+	public long getLine() {
+		return line;
+	}
+
+	/**
+	 * Get the column of the error in its line, starting from 1, in chars, or in bytes for byte input.
+	 *
+	 * @return The column, or -1 if the json is valid.
+	 */
+	public long getColumn() {
+		return column;
+	}
+
+	@Override
+	public String toString() {
+		return isValid() ? "Valid" : message + " at line " + line + ", column " + column + " (index: " + offset + ")";
+	}
+
+}
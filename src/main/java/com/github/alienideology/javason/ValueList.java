@@ -0,0 +1,356 @@
+package com.github.alienideology.javason;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * The elements of a {@link JsonArray}.
+ * While every element is an {@link Integer}, a {@link Long} or a {@link Double}, and all are of the same type,
+ * the elements are kept unboxed in an {@code int[]}, a {@code long[]} or a {@code double[]}.
+ * The first element of another type moves all elements to an {@code Object[]}, which is kept until the list is cleared.
+ * Elements keep their exact types, so {@link #get(int)} boxes them to the type they were added as.
+ *
+ * @author AlienIdeology
+ */
+final class ValueList extends AbstractList<Object> implements RandomAccess {
+
+	private final static int EMPTY = 0;
+	private final static int INTS = 1;
+	private final static int LONGS = 2;
+	private final static int DOUBLES = 3;
+	private final static int OBJECTS = 4;
+
+	private int kind = EMPTY;
+	private int[] ints; // Nullable, one of the arrays is used for the kind
+	private long[] longs;
+	private double[] doubles;
+	private Object[] objects;
+	private int size;
+
+	ValueList() {}
+
+	ValueList(Collection<?> elements) {
+		addAll(elements);
+	}
+
+	// The elements are all ints, longs or doubles, see intAt, longAt and doubleAt
+	boolean isNumeric() {
+		return kind == INTS || kind == LONGS || kind == DOUBLES;
+	}
+
+	// Converted like JsonArray#getInt
+	int intAt(int index) {
+		checkIndex(index);
+		return kind == INTS ? ints[index] : kind == LONGS ? Math.toIntExact(longs[index]) : (int) doubles[index];
+	}
+
+	long longAt(int index) {
+		checkIndex(index);
+		return kind == INTS ? ints[index] : kind == LONGS ? longs[index] : (long) doubles[index];
+	}
+
+	double doubleAt(int index) {
+		checkIndex(index);
+		return kind == INTS ? ints[index] : kind == LONGS ? longs[index] : doubles[index];
+	}
+
+	// Append the number at the index without boxing it
+	void appendTo(StringBuilder builder, int index) {
+		if (kind == INTS) {
+			builder.append(ints[index]);
+		} else if (kind == LONGS) {
+			builder.append(longs[index]);
+		} else {
+			builder.append(doubles[index]);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Object get(int index) {
+		checkIndex(index);
+		switch (kind) {
+			case INTS:
+				return ints[index];
+			case LONGS:
+				return longs[index];
+			case DOUBLES:
+				return doubles[index];
+			default:
+				return objects[index];
+		}
+	}
+
+	@Override
+	public Object set(int index, Object element) {
+		final Object old = get(index);
+		if (kind == INTS && element instanceof Integer) {
+			ints[index] = (Integer) element;
+		} else if (kind == LONGS && element instanceof Long) {
+			longs[index] = (Long) element;
+		} else if (kind == DOUBLES && element instanceof Double) {
+			doubles[index] = (Double) element;
+		} else {
+			box();
+			objects[index] = element;
+		}
+		return old;
+	}
+
+	void setInt(int index, int element) {
+		checkIndex(index);
+		if (kind == INTS) {
+			ints[index] = element;
+		} else {
+			set(index, element);
+		}
+	}
+
+	void setLong(int index, long element) {
+		checkIndex(index);
+		if (kind == LONGS) {
+			longs[index] = element;
+		} else {
+			set(index, element);
+		}
+	}
+
+	void setDouble(int index, double element) {
+		checkIndex(index);
+		if (kind == DOUBLES) {
+			doubles[index] = element;
+		} else {
+			set(index, element);
+		}
+	}
+
+	@Override
+	public void add(int index, Object element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (index == size && element instanceof Integer && (kind == EMPTY || kind == INTS)) {
+			addInt((Integer) element);
+		} else if (index == size && element instanceof Long && (kind == EMPTY || kind == LONGS)) {
+			addLong((Long) element);
+		} else if (index == size && element instanceof Double && (kind == EMPTY || kind == DOUBLES)) {
+			addDouble((Double) element);
+		} else {
+			box();
+			grow(size + 1);
+			System.arraycopy(objects, index, objects, index + 1, size - index);
+			objects[index] = element;
+			size++;
+			modCount++;
+		}
+	}
+
+	void addInt(int element) {
+		if (kind == EMPTY) {
+			kind = INTS;
+			ints = new int[10];
+		} else if (kind != INTS) {
+			add(size, element);
+			return;
+		}
+		grow(size + 1);
+		ints[size++] = element;
+		modCount++;
+	}
+
+	void addLong(long element) {
+		if (kind == EMPTY) {
+			kind = LONGS;
+			longs = new long[10];
+		} else if (kind != LONGS) {
+			add(size, element);
+			return;
+		}
+		grow(size + 1);
+		longs[size++] = element;
+		modCount++;
+	}
+
+	void addDouble(double element) {
+		if (kind == EMPTY) {
+			kind = DOUBLES;
+			doubles = new double[10];
+		} else if (kind != DOUBLES) {
+			add(size, element);
+			return;
+		}
+		grow(size + 1);
+		doubles[size++] = element;
+		modCount++;
+	}
+
+	void addAll(int[] elements) {
+		if (kind == EMPTY && elements.length != 0) {
+			kind = INTS;
+			ints = new int[elements.length];
+		}
+		if (kind != INTS) {
+			for (int element : elements) add(size, element);
+			return;
+		}
+		grow(size + elements.length);
+		System.arraycopy(elements, 0, ints, size, elements.length);
+		size += elements.length;
+		modCount++;
+	}
+
+	void addAll(long[] elements) {
+		if (kind == EMPTY && elements.length != 0) {
+			kind = LONGS;
+			longs = new long[elements.length];
+		}
+		if (kind != LONGS) {
+			for (long element : elements) add(size, element);
+			return;
+		}
+		grow(size + elements.length);
+		System.arraycopy(elements, 0, longs, size, elements.length);
+		size += elements.length;
+		modCount++;
+	}
+
+	void addAll(double[] elements) {
+		if (kind == EMPTY && elements.length != 0) {
+			kind = DOUBLES;
+			doubles = new double[elements.length];
+		}
+		if (kind != DOUBLES) {
+			for (double element : elements) add(size, element);
+			return;
+		}
+		grow(size + elements.length);
+		System.arraycopy(elements, 0, doubles, size, elements.length);
+		size += elements.length;
+		modCount++;
+	}
+
+	@Override
+	public Object remove(int index) {
+		final Object old = get(index);
+		final int moved = size - index - 1;
+		switch (kind) {
+			case INTS:
+				System.arraycopy(ints, index + 1, ints, index, moved);
+				break;
+			case LONGS:
+				System.arraycopy(longs, index + 1, longs, index, moved);
+				break;
+			case DOUBLES:
+				System.arraycopy(doubles, index + 1, doubles, index, moved);
+				break;
+			default:
+				System.arraycopy(objects, index + 1, objects, index, moved);
+				objects[size - 1] = null;
+		}
+		size--;
+		modCount++;
+		return old;
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		for (int i = 0; i < size; i++) {
+			if (JsonString.equal(o, get(i))) return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		for (int i = size - 1; i >= 0; i--) {
+			if (JsonString.equal(o, get(i))) return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		final int index = indexOf(o);
+		if (index < 0) return false;
+		remove(index);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		kind = EMPTY;
+		ints = null;
+		longs = null;
+		doubles = null;
+		objects = null;
+		size = 0;
+		modCount++;
+	}
+
+	// Drop the unused capacity of a large list
+	void trim() {
+		if (kind == INTS && ints.length - size > 64) {
+			ints = Arrays.copyOf(ints, size);
+		} else if (kind == LONGS && longs.length - size > 64) {
+			longs = Arrays.copyOf(longs, size);
+		} else if (kind == DOUBLES && doubles.length - size > 64) {
+			doubles = Arrays.copyOf(doubles, size);
+		} else if (kind == OBJECTS && objects.length - size > 64) {
+			objects = Arrays.copyOf(objects, size);
+		}
+	}
+
+	// Move the elements to the object array
+	private void box() {
+		if (kind == OBJECTS) return;
+
+		final Object[] boxed = new Object[Math.max(10, size + 1)];
+		for (int i = 0; i < size; i++) {
+			boxed[i] = get(i);
+		}
+		kind = OBJECTS;
+		objects = boxed;
+		ints = null;
+		longs = null;
+		doubles = null;
+	}
+
+	// Make the array of the kind large enough for the capacity
+	private void grow(int capacity) {
+		final int length = kind == INTS ? ints.length : kind == LONGS ? longs.length : kind == DOUBLES ? doubles.length : objects.length;
+		if (capacity <= length) return;
+
+		final int grown = Math.max(capacity, length + (length >> 1));
+		switch (kind) {
+			case INTS:
+				ints = Arrays.copyOf(ints, grown);
+				break;
+			case LONGS:
+				longs = Arrays.copyOf(longs, grown);
+				break;
+			case DOUBLES:
+				doubles = Arrays.copyOf(doubles, grown);
+				break;
+			default:
+				objects = Arrays.copyOf(objects, grown);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+}
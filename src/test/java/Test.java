@@ -1,12 +1,67 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import com.github.alienideology.javason.ImmutableJsonArray;
+import com.github.alienideology.javason.ImmutableJsonObject;
+import com.github.alienideology.javason.Javason;
 import com.github.alienideology.javason.JsonArray;
+import com.github.alienideology.javason.JsonDocumentReader;
+import com.github.alienideology.javason.JsonFeedParser;
+import com.github.alienideology.javason.JsonHandler;
+import com.github.alienideology.javason.JsonLines;
+import com.github.alienideology.javason.JsonNumber;
 import com.github.alienideology.javason.JsonObject;
 import com.github.alienideology.javason.JsonParser;
+import com.github.alienideology.javason.JsonPathExtractor;
+import com.github.alienideology.javason.JsonTokenizer;
+import com.github.alienideology.javason.ParallelJsonParser;
+import com.github.alienideology.javason.SymbolTable;
+import com.github.alienideology.javason.ValidationResult;
+import com.github.alienideology.javason.exception.JsonException;
 
 public class Test {
 
-	public static void main(String[] args) {
-//		testObject();
+	public static void main(String[] args) throws Exception {
+		testObject();
 		testArray();
+		testJsonLines();
+		testStrings();
+		testFreeze();
+		testLazyOrder();
+		testPersistent();
+		testPrimitives();
+		testNumbers();
+		testLazyNumbers();
+		testHandler();
+		testDepth();
+		testSources();
+		testParallel();
+		testValidator();
+		testFeed();
+		testSymbols();
+		testPath();
+		testDocuments();
 	}
 	
 	public static void testObject() {
@@ -34,6 +89,856 @@ public class Test {
 		System.out.println(obj.toString(4));
 	}
 	
+	public static void testJsonLines() throws Exception {
+		final Path path = Files.createTempFile("javason", ".ndjson");
+		try {
+			final StringBuilder lines = new StringBuilder();
+			for (int i = 0; i < 20000; i++) {
+				lines.append("{\"line\":").append(i).append(i % 100 == 0 ? "}\n\n" : "}\n"); // Blank lines are skipped
+			}
+			Files.write(path, lines.toString().getBytes(StandardCharsets.UTF_8));
+			final List<Integer> parsed = new JsonLines(path).stream().map(obj -> obj.getInt("line")).collect(Collectors.toList());
+			check(parsed.size() == 20000, "JsonLines reads every line");
+			for (int i = 0; i < parsed.size(); i++) {
+				check(parsed.get(i) == i, "JsonLines keeps the order of the lines");
+			}
+
+			lines.append("{\"line\":}\n");
+			Files.write(path, lines.toString().getBytes(StandardCharsets.UTF_8));
+			try {
+				new JsonLines(path).stream().count();
+				check(false, "JsonLines throws syntax errors");
+			} catch (JsonException e) {
+				check(e.getMessage().startsWith("Line 20201: "), "JsonLines numbers the lines: " + e.getMessage());
+			}
+		} finally {
+			Files.delete(path);
+		}
+		System.out.println("JsonLines: OK");
+		
+		testLargeFile();
+	}
+	
+	// Positions past 2G in a sparse file, which are past the range of ints
+	private static void testLargeFile() throws Exception {
+		final Path path = Files.createTempFile("javason", ".ndjson");
+		try {
+			final long newline = (1L << 31) + 5;
+			try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+				file.setLength(newline + 16);
+				file.seek(newline);
+				file.write('\n');
+			}
+			
+			final Class<?> clazz = Class.forName("com.github.alienideology.javason.ByteRegions");
+			final Constructor<?> constructor = clazz.getDeclaredConstructor(ByteBuffer[].class);
+			final Method indexOf = clazz.getDeclaredMethod("indexOf", byte.class, long.class, long.class);
+			constructor.setAccessible(true);
+			indexOf.setAccessible(true);
+			
+			final Object regions = constructor.newInstance((Object) map(path));
+			check(indexOf.invoke(regions, (byte) '\n', (1L << 31) - 8, newline + 16).equals(newline), "Find a byte past 2G");
+			check(indexOf.invoke(regions, (byte) '\n', newline + 1, newline + 16).equals(newline + 16), "Find no byte past 2G");
+		} catch (IOException e) {
+			System.out.println("Large file: skipped, " + e);
+			return;
+		} finally {
+			Files.delete(path);
+		}
+		System.out.println("Large file: OK");
+	}
+	
+	private static ByteBuffer[] map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path)) {
+			final long region = 1L << 30;
+			final ByteBuffer[] regions = new ByteBuffer[(int) ((channel.size() + region - 1) / region)];
+			for (int i = 0; i < regions.length; i++) {
+				regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, i * region, Math.min(region, channel.size() - i * region));
+			}
+			return regions;
+		}
+	}
+	
+	public static void testStrings() {
+		final String json = "[\"a\\\"b\\\\\\/\\b\\f\\n\\r\\t\", \"\\u00e9\\u00E9\\ud83d\\ude00\", \"\u00e9\ud83d\ude00\"]";
+		for (boolean views : new boolean[] {false, true}) {
+			for (JsonParser parser : parsers(json)) {
+				final JsonArray array = parser.setStringViews(views).parseArray();
+				check(array.getString(0).equals("a\"b\\/\b\f\n\r\t"), "Decode escape sequences");
+				check(array.getString(1).equals("\u00e9\u00e9\ud83d\ude00"), "Decode unicode escape sequences and surrogate pairs");
+				check(array.getString(2).equals("\u00e9\ud83d\ude00"), "Decode UTF-8 sequences");
+				check(new JsonParser(array.toString()).parseArray().getString(1).equals(array.getString(1)), "Write decoded strings");
+			}
+		}
+		check(Javason.validate(json).isValid(), "Validate escape sequences");
+		
+		final JsonObject viewed = new JsonParser("{\"a\":\"x\\ty\",\"b\":[\"z\"]}").setStringViews(true).parseObject();
+		final JsonObject strings = new JsonParser("{\"a\":\"x\\ty\",\"b\":[\"z\"]}").parseObject();
+		check(viewed.equals(strings) && strings.equals(viewed) && viewed.hashCode() == strings.hashCode(), "Views equal strings");
+		check(viewed.get("a").equals("x\ty") && viewed.getArray("b").contains("z"), "Compare views with strings");
+		check(viewed.removeByValue("x\ty") != null && viewed.getArray("b").remove("z").equals(true), "Remove views by strings");
+		
+		final String[] invalid = {"[\"\\uZZZZ\"]", "[\"\\u12\"]", "[\"\\u12\"", "[\"\\u\u0663\u0663\u0663\u0663\"]", "[\"\\x\"]",
+				"[\"a\u0001b\"]", "[\"a\nb\"]", "[\"0123456789\t0123456789\"]"};
+		for (String source : invalid) {
+			check(!Javason.validate(source).isValid(), "Validate " + source);
+			for (boolean views : new boolean[] {false, true}) {
+				for (JsonParser parser : parsers(source)) {
+					try {
+						parser.setStringViews(views).parseArray();
+						check(false, "Parse " + source);
+					} catch (JsonException e) {
+						// Expected, while the string is scanned
+					}
+				}
+			}
+		}
+		System.out.println("Strings: OK");
+	}
+	
+	public static void testFreeze() {
+		final String json = "{\"a\":1,\"b\":{\"c\":[1,2,{\"d\":\"x\"}],\"e\":[1.5,2.5]},\"f\":\"s\"}";
+		final JsonObject[] objects = {new JsonParser(json).parseObject(), new JsonParser(json).parseLazyObject(),
+				new ImmutableJsonObject(new JsonParser(json).parseObject().getAsMap())};
+		for (JsonObject obj : objects) {
+			final JsonObject copy = new JsonParser(json).parseObject();
+			check(obj.equals(copy) && copy.equals(obj) && obj.hashCode() == copy.hashCode(), "Equal pairs are equal");
+			
+			final JsonObject child = obj.getObject("b");
+			final JsonArray array = child.getArray("c");
+			check(obj.freeze() == obj && obj.isFrozen(), "Freeze an object");
+			check(child.isFrozen() && array.isFrozen() && array.getObject(2).isFrozen() && child.getArray("e").isFrozen(), "Freeze the tree");
+			checkFrozen(() -> child.put("z", 1));
+			checkFrozen(() -> array.add(3));
+			checkFrozen(() -> array.getObject(2).clear());
+			checkFrozen(() -> child.getArray("e").addAll(new double[] {1}));
+			checkFrozen(() -> obj.getAsMap().put("z", 1));
+			checkFrozen(() -> array.getAsCollection().clear());
+			
+			final String string = obj.toString();
+			check(string == obj.toString(), "Cache the json string");
+			check(obj.hashCode() == copy.hashCode() && obj.equals(copy), "Cache the hash code");
+			check(obj.toString(4).equals(new JsonParser(string).parseObject().toString(4)), "Indent a frozen object");
+			copy.put("a", 2);
+			check(!obj.equals(copy), "Different pairs are not equal");
+		}
+		
+		JsonObject deep = new JsonObject();
+		final JsonObject root = deep;
+		for (int i = 0; i < 100000; i++) { // Deeper than the call stack
+			deep = deep.put("child", new JsonObject()).getObject("child");
+		}
+		check(root.freeze().isFrozen() && deep.isFrozen(), "Freeze without recursion");
+		System.out.println("Freeze: OK");
+	}
+	
+	public static void testLazyOrder() {
+		final String json = "{\"a\":1,\"b\":{\"c\":2},\"d\":[3]}";
+		final JsonObject lazy = new JsonParser(json).parseLazyObject();
+		check(lazy.getObject("b").getInt("c") == 2 && lazy.getArray("d").getInt(0) == 3, "Parse values on demand");
+		check(lazy.toString().equals(json), "Keep the document order: " + lazy);
+		check(lazy.getAsMap().keySet().toString().equals("[a, b, d]"), "Iterate in document order");
+		check(lazy.size() == 3 && lazy.contains("a") && !lazy.contains("z"), "Index the keys");
+		System.out.println("Lazy order: OK");
+	}
+	
+	public static void testPersistent() {
+		// Keys of the same hash code, which are kept in collision nodes
+		final String[] colliding = {"AaAa", "AaBB", "BBAa", "BBBB", "Aa", "BB"};
+		check("Aa".hashCode() == "BB".hashCode() && "AaAa".hashCode() == "BBBB".hashCode(), "Collide the hash codes");
+		ImmutableJsonObject object = new ImmutableJsonObject();
+		for (int i = 0; i < colliding.length; i++) {
+			object = object.with(colliding[i], i);
+		}
+		final ImmutableJsonObject full = object;
+		for (int i = 0; i < colliding.length; i++) {
+			check(full.getInt(colliding[i]) == i, "Get the colliding key " + colliding[i]);
+		}
+		check(full.with("Aa", 4) == full && full.without("Ab") == full, "Derive nothing for the same pairs");
+		for (int i = 0; i < colliding.length; i++) {
+			object = object.without(colliding[i]);
+			check(object.size() == colliding.length - i - 1 && !object.contains(colliding[i]) && (i + 1 == colliding.length || object.contains(colliding[i + 1])),
+					"Remove the colliding key " + colliding[i]);
+		}
+		check(object.isEmpty() && object.getAsMap().isEmpty() && full.size() == colliding.length, "Remove down to empty");
+		
+		// Random derivations, while the previous versions stay unchanged
+		final Random random = new Random(7);
+		final List<ImmutableJsonObject> objects = new ArrayList<>();
+		final List<Map<String, Object>> maps = new ArrayList<>();
+		object = new ImmutableJsonObject();
+		final Map<String, Object> map = new HashMap<>();
+		for (int i = 0; i < 20000; i++) {
+			final String key = random.nextInt(4) == 0 ? colliding[random.nextInt(colliding.length)] : "k" + random.nextInt(3000);
+			if (random.nextInt(3) == 0) {
+				object = object.without(key);
+				map.remove(key);
+			} else {
+				object = object.with(key, i);
+				map.put(key, i);
+			}
+			if (i % 1000 == 0) {
+				objects.add(object);
+				maps.add(new HashMap<>(map));
+			}
+		}
+		check(object.getAsMap().equals(map) && object.size() == map.size(), "Derive the same pairs as a hash map");
+		for (int i = 0; i < objects.size(); i++) {
+			check(objects.get(i).getAsMap().equals(maps.get(i)), "Keep the version " + i + " of the object");
+		}
+		
+		// Appending across the roots of 32 and 1024 elements
+		ImmutableJsonArray array = new ImmutableJsonArray();
+		final List<ImmutableJsonArray> arrays = new ArrayList<>();
+		final List<Object> list = new ArrayList<>();
+		for (int i = 0; i < 33000; i++) {
+			array = array.withElement(array.size(), i);
+			list.add(i);
+			if (i == 31 || i == 32 || i == 1023 || i == 1024 || i == 32767 || i == 32768) {
+				arrays.add(array);
+			}
+		}
+		check(array.getAsCollection().equals(list), "Append across the levels of the trie");
+		check(new ImmutableJsonArray(list).getAsCollection().equals(list), "Build the trie from a collection");
+		
+		final ImmutableJsonArray replaced = array.withElement(1000, "x").withElement(32768, "y");
+		check(replaced.get(1000).equals("x") && replaced.get(32768).equals("y") && replaced.size() == array.size(), "Replace elements");
+		check(array.get(1000).equals(1000) && array.getAsCollection().equals(list) && array.withElement(5, 5) == array, "Keep the array before replacing");
+		for (ImmutableJsonArray version : arrays) {
+			check(version.getAsCollection().equals(list.subList(0, version.size())), "Keep the version of " + version.size() + " elements");
+		}
+		System.out.println("Persistent: OK");
+	}
+	
+	public static void testPrimitives() throws Exception {
+		// The kinds of ValueList
+		final int empty = 0, ints = 1, longs = 2, doubles = 3, objects = 4;
+		
+		final JsonArray array = new JsonArray().addAll(new int[] {1, 2, 3});
+		array.add(4).put(1, 9);
+		array.remove(2);
+		check(storage(array) == ints && Arrays.equals(array.toIntArray(), new int[] {1, 9, 4}) && array.get(0) instanceof Integer, "Keep ints unboxed");
+		
+		array.put(0, 7L);
+		check(storage(array) == objects && array.get(0).equals(7L) && array.get(1).equals(9), "Box the ints for a long");
+		check(Arrays.equals(array.toLongArray(), new long[] {7, 9, 4}), "Convert the boxed elements");
+		array.put(1, 2);
+		check(storage(array) == objects && array.get(1) instanceof Integer, "Keep the boxed elements until cleared");
+		
+		array.clear().addAll(new long[] {1, 3000000000L});
+		check(storage(array) == longs && array.get(0) instanceof Long, "Reset the kind when cleared");
+		try {
+			array.toIntArray();
+			check(false, "Overflow an int");
+		} catch (ArithmeticException e) {
+			// Expected
+		}
+		array.put(0, 0.5);
+		check(storage(array) == objects && array.get(0).equals(0.5) && array.get(1).equals(3000000000L), "Box the longs for a double");
+		
+		final JsonArray decimals = new JsonArray().addAll(new double[] {0.5, 1.5});
+		try {
+			decimals.addAll(new double[] {2.5, Double.NaN});
+			check(false, "Reject NaN");
+		} catch (IllegalArgumentException e) {
+			check(decimals.size() == 2 && storage(decimals) == doubles, "Add no double with NaN");
+		}
+		check(Arrays.equals(decimals.toDoubleArray(), new double[] {0.5, 1.5}) && storage(new JsonArray().addAll(new int[0])) == empty,
+				"Keep doubles unboxed");
+		
+		// Parsed arrays are kept unboxed while the numbers are of the same type, and trimmed
+		final StringBuilder json = new StringBuilder("[0");
+		for (int i = 1; i < 1000; i++) json.append(',').append(i);
+		final JsonArray parsed = new JsonParser(json.append(']').toString()).parseArray();
+		final Field capacity = Class.forName("com.github.alienideology.javason.ValueList").getDeclaredField("ints");
+		capacity.setAccessible(true);
+		check(storage(parsed) == ints && ((int[]) capacity.get(field(parsed, "array"))).length - 1000 <= 64, "Trim the parsed ints");
+		check(storage(new JsonParser("[1.5,2]").parseArray()) == objects && storage(new JsonParser("[1.5,2.5]").parseArray()) == doubles,
+				"Box the mixed numbers");
+		System.out.println("Primitives: OK");
+	}
+	
+	private static int storage(JsonArray array) throws Exception {
+		return (Integer) field(field(array, "array"), "kind");
+	}
+	
+	private static Object field(Object object, String name) throws Exception {
+		Class<?> clazz = object.getClass();
+		while (true) {
+			try {
+				final Field field = clazz.getDeclaredField(name);
+				field.setAccessible(true);
+				return field.get(object);
+			} catch (NoSuchFieldException e) {
+				clazz = clazz.getSuperclass();
+			}
+		}
+	}
+	
+	public static void testNumbers() {
+		final String[] doubles = {"1.5", "-123e5", "0.1", "3.141592653589793238", "1e300", "2.2250738585072014E-308", // Fast path and Eisel-Lemire
+				"4.9e-324", "2.2250738585072011e-308", "1e-400", "-0.0", // Subnormals and underflows
+				"1.7976931348623157e308", "1.7976931348623159e308", "1e400", // Overflows
+				"9007199254740993.0", "9007199254740992.9999999999999999999", "0.10000000000000000000000000001"}; // Halfway points and dropped digits
+		final Random random = new Random(42);
+		final StringBuilder json = new StringBuilder("[");
+		final String[] texts = new String[doubles.length + 10000];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = i < doubles.length ? doubles[i] : Double.toString(Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL));
+			json.append(i == 0 ? "" : ",").append(texts[i]);
+		}
+		final JsonArray array = new JsonParser(json.append("]").toString()).parseArray();
+		for (int i = 0; i < texts.length; i++) {
+			check(Double.compare(array.getDouble(i), Double.parseDouble(texts[i])) == 0, "Parse the nearest double of " + texts[i]);
+		}
+		
+		check(Javason.getNumberFromString("123") instanceof Integer && Javason.getNumberFromString("12345678901") instanceof Long, "Parse integers");
+		check(Javason.getNumberFromString("123456789012345678901").equals(new BigInteger("123456789012345678901")), "Parse big integers");
+		check(Javason.getNumberFromString("12.0").equals(12.0) && Javason.getNumberFromString("1e400") instanceof BigDecimal, "Parse decimals");
+		for (String invalid : new String[] {"007", "+1", "1.", ".5", "1e", "1 ", "", "1e99999999999"}) {
+			try {
+				Javason.getNumberFromString(invalid);
+				check(false, "Reject " + invalid);
+			} catch (NumberFormatException e) {
+				// Expected
+			}
+		}
+		
+		// Valid json, but the exponent does not fit in a big decimal
+		for (String huge : new String[] {"[1e99999999999]", "[12e3456789012]", "[-1.5E+2147483648]"}) {
+			for (JsonParser parser : parsers(huge)) {
+				try {
+					parser.parseArray();
+					check(false, "Reject the exponent of " + huge);
+				} catch (JsonException e) {
+					check(e.getMessage().contains("at index: 1"), "Locate the number of " + huge + ": " + e.getMessage());
+				}
+			}
+		}
+		check(new JsonParser("[1e99999, 1e-99999999999]").parseArray().get(0).equals(new BigDecimal("1e99999")), "Parse a large exponent");
+		System.out.println("Numbers: OK");
+	}
+	
+	public static void testLazyNumbers() {
+		final String json = "{\"a\":1.50,\"b\":12345678901234567890,\"c\":1E2,\"d\":-0.0,\"e\":3000000000,\"list\":[2.50,7]}";
+		final JsonObject object = new JsonParser(json).setLazyNumbers(true).parseObject();
+		check(object.toString().equals(json), "Write lazy numbers as their text: " + object);
+		check(new JsonParser(json).parseObject().get("a") instanceof Double, "Convert numbers by default");
+		
+		final JsonNumber a = (JsonNumber) object.get("a");
+		check(a.getValue().equals(1.5) && a.getValue() == a.getValue(), "Convert and cache the value");
+		check(a.bigDecimalValue().equals(new BigDecimal("1.50")), "Convert the exact decimal");
+		check(a.equals(new JsonNumber("1.50")) && !a.equals(new JsonNumber("1.5")) && a.hashCode() == "1.50".hashCode(), "Compare the text");
+		check(((JsonNumber) object.get("b")).getValue() instanceof BigInteger
+				&& object.getBigInteger("b").equals(new BigInteger("12345678901234567890")), "Convert a big integer");
+		check(((JsonNumber) object.get("c")).getValue().equals(100.0) && object.getBigDecimal("c").equals(new BigDecimal("1E2")), "Convert an exponent");
+		check(Double.doubleToLongBits(object.getDouble("d")) == Double.doubleToLongBits(-0.0), "Convert a negative zero");
+		check(object.getLong("e") == 3000000000L && object.getNum("e").longValue() == 3000000000L, "Unwrap lazy numbers in the getters");
+		check(object.getArray("list").get(0) instanceof JsonNumber && object.getArray("list").get(0).toString().equals("2.50") && object.getArray("list").getInt(1) == 7,
+				"Keep lazy numbers in arrays");
+		
+		final JsonArray large = new JsonParser("[1e99999, -1e-99999]").setLazyNumbers(true).parseArray();
+		check(large.getDouble(0) == Double.POSITIVE_INFINITY && large.getBigDecimal(0).equals(new BigDecimal("1e99999"))
+				&& large.getDouble(1) == -0.0, "Convert large exponents");
+		for (JsonParser parser : parsers("[1e99999999999]")) {
+			try {
+				parser.setLazyNumbers(true).parseArray();
+				check(false, "Reject a lazy number out of range");
+			} catch (JsonException e) {
+				check(e.getMessage().contains("at index: 1"), "Locate a lazy number out of range: " + e.getMessage());
+			}
+		}
+		
+		for (String invalid : new String[] {"", "007", "1.", ".5", "-", "1e", "+1", " 1", "1 ", "[1]", "NaN", "0x10", "1e99999999999"}) {
+			try {
+				new JsonNumber(invalid);
+				check(false, "Reject the number " + invalid);
+			} catch (NumberFormatException e) {
+				// Expected
+			}
+		}
+		System.out.println("Lazy numbers: OK");
+	}
+	
+	public static void testHandler() {
+		final String json = "{\"a\":[1,-9223372036854775808,{}],\"b\":{\"c\":[[]],\"d\":\"e\"},"
+				+ "\"f\":[1.5,-2e-3,9223372036854775808,1e400],\"g\":[true,false,null]}";
+		final List<String> expected = Arrays.asList("{", "key a", "[", "long 1", "long -9223372036854775808", "{", "}", "]",
+				"key b", "{", "key c", "[", "[", "]", "]", "key d", "string e", "}",
+				"key f", "[", "double 1.5", "double -0.002", "BigInteger 9223372036854775808", "BigDecimal 1E+400", "]",
+				"key g", "[", "boolean true", "boolean false", "null", "]", "}");
+		for (JsonParser parser : parsers(json)) {
+			final List<String> events = new ArrayList<>();
+			parser.parse(new JsonHandler() {
+				@Override public void startObject() { events.add("{"); }
+				@Override public void endObject() { events.add("}"); }
+				@Override public void startArray() { events.add("["); }
+				@Override public void endArray() { events.add("]"); }
+				@Override public void key(String key) { events.add("key " + key); }
+				@Override public void stringValue(String value) { events.add("string " + value); }
+				@Override public void numberValue(long value) { events.add("long " + value); }
+				@Override public void numberValue(double value) { events.add("double " + value); }
+				@Override public void numberValue(Number value) { events.add(value.getClass().getSimpleName() + " " + value); }
+				@Override public void booleanValue(boolean value) { events.add("boolean " + value); }
+				@Override public void nullValue() { events.add("null"); }
+			});
+			check(events.equals(expected), "Handle the events of a json: " + events);
+		}
+		
+		// Default methods ignore the events
+		new JsonParser("[{\"a\":1}]").parse(new JsonHandler() {});
+		try {
+			new JsonParser("[1,]").parse(new JsonHandler() {});
+			throw new AssertionError("Handled an invalid json");
+		} catch (JsonException e) {
+			// Expected
+		}
+		System.out.println("Handler: OK");
+	}
+	
+	public static void testDepth() {
+		// Containers are built without recursion, so a deep json throws at the limit instead of overflowing the stack
+		final String deep = nested(100000);
+		for (JsonParser parser : parsers(deep)) {
+			try {
+				parser.parseArray();
+				throw new AssertionError("Parsed a json deeper than the default maximum depth");
+			} catch (JsonException e) {
+				check(e.getMessage().contains("depth of " + JsonTokenizer.DEFAULT_MAX_DEPTH), "Exceed the default maximum depth: " + e.getMessage());
+			}
+		}
+		try {
+			new JsonParser(deep).parse(new JsonHandler() {});
+			throw new AssertionError("Handled a json deeper than the default maximum depth");
+		} catch (JsonException e) {
+			// Expected
+		}
+		check(depth(new JsonParser(deep).setMaxDepth(100000).parseArray()) == 100000, "Parse a json as deep as the maximum depth");
+		
+		final String json = "{\"a\":{\"b\":[[{\"c\":1}]]}}"; // 5 levels
+		for (JsonParser parser : parsers(json)) {
+			try {
+				parser.setMaxDepth(4).parseObject();
+				throw new AssertionError("Parsed a json deeper than the maximum depth");
+			} catch (JsonException e) {
+				check(e.getMessage().contains("depth of 4"), "Exceed the maximum depth: " + e.getMessage());
+			}
+		}
+		check(new JsonParser(json).setMaxDepth(5).parseObject().getObject("a").getArray("b").getArray(0).getObject(0).getInt("c") == 1, "Parse a json as deep as the maximum depth");
+		
+		// Lazy values are parsed when they are accessed, so the limit is checked then
+		final JsonObject lazy = new JsonParser(json).setMaxDepth(4).parseLazyObject();
+		try {
+			lazy.getObject("a").getArray("b").getArray(0).getObject(0).getInt("c");
+			throw new AssertionError("Accessed a lazy json deeper than the maximum depth");
+		} catch (JsonException e) {
+			check(e.getMessage().contains("depth of 4"), "Exceed the maximum depth lazily: " + e.getMessage());
+		}
+		check(new JsonParser(json).setMaxDepth(5).parseLazyObject().getObject("a").getArray("b").getArray(0).getObject(0).getInt("c") == 1, "Access a lazy json as deep as the maximum depth");
+		try {
+			depth(new JsonParser(nested(2000)).parseLazyArray());
+			throw new AssertionError("Accessed a lazy json deeper than the default maximum depth");
+		} catch (JsonException e) {
+			check(e.getMessage().contains("depth of " + JsonTokenizer.DEFAULT_MAX_DEPTH), "Exceed the default maximum depth lazily: " + e.getMessage());
+		}
+		check(depth(new JsonParser(nested(2000)).setMaxDepth(2000).parseLazyArray()) == 2000, "Access a lazy json as deep as the maximum depth");
+		System.out.println("Depth: OK");
+	}
+	
+	// Arrays nested to a depth, as [1,[1,[1]]]
+	private static String nested(int depth) {
+		final StringBuilder json = new StringBuilder("[1");
+		for (int i = 1; i < depth; i++) {
+			json.append(",[1");
+		}
+		for (int i = 0; i < depth; i++) {
+			json.append(']');
+		}
+		return json.toString();
+	}
+	
+	// The depth of an array from nested(int), accessing each nested array
+	private static int depth(JsonArray array) {
+		int depth = 1;
+		while (array.size() > 1) {
+			array = array.getArray(1);
+			depth++;
+		}
+		return depth;
+	}
+	
+	public static void testSources() {
+		// A slice of chars is parsed in place, within its range
+		final char[] chars = "xx{\"key\":[12]}[3]".toCharArray();
+		check(new JsonParser(chars, 2, 12).parseObject().getArray("key").getInt(0) == 12, "Parse a slice of chars");
+		try {
+			new JsonParser(chars, 2, 11).parseObject();
+			throw new AssertionError("Parsed past the end of a slice of chars");
+		} catch (JsonException e) {
+			// Expected
+		}
+		try {
+			new JsonParser(chars, 10, 8);
+			throw new AssertionError("Constructed a parser by a slice out of bounds");
+		} catch (IndexOutOfBoundsException e) {
+			// Expected
+		}
+		
+		// A char sequence is read in chunks, so tokens span the chunks
+		final StringBuilder records = new StringBuilder("[");
+		for (int i = 0; i < 5000; i++) {
+			records.append(i == 0 ? "" : ",").append("{\"key").append(i % 7).append("\":\"value ").append(i).append("\",\"n\":").append(i * 1000003L).append('}');
+		}
+		records.append(']');
+		final String expected = new JsonParser(records.toString()).parseArray().toString();
+		check(new JsonParser(records).parseArray().toString().equals(expected), "Parse a string builder");
+		check(new JsonParser(CharBuffer.wrap(records)).parseArray().toString().equals(expected), "Parse a char buffer");
+		
+		// Buffers are parsed as one json, and a key, a number or a char may be split between a heap and a direct buffer
+		final byte[] json = "{\"name\":\"caf\u00e9 \ud83d\ude00\",\"number\":1234567890123,\"pi\":-3.25e-2}".getBytes(StandardCharsets.UTF_8);
+		for (int split = 0; split <= json.length; split++) {
+			final ByteBuffer heap = ByteBuffer.allocate(split + 4);
+			heap.position(2).limit(2 + split); // Not at the start of the buffer
+			heap.duplicate().put(json, 0, split);
+			final ByteBuffer direct = ByteBuffer.allocateDirect(json.length - split + 4);
+			direct.put(json, split, json.length - split).flip();
+			for (ByteBuffer[] buffers : new ByteBuffer[][] {{heap, direct}, {ByteBuffer.allocate(0), heap, ByteBuffer.allocateDirect(0), direct}}) {
+				final JsonObject object = new JsonParser(buffers).parseObject();
+				check(object.getString("name").equals("caf\u00e9 \ud83d\ude00") && object.getLong("number") == 1234567890123L && object.getDouble("pi") == -3.25e-2,
+						"Parse buffers split at " + split + ": " + object);
+			}
+			check(heap.position() == 2 && heap.limit() == 2 + split && direct.position() == 0 && direct.limit() == json.length - split,
+					"Keep the positions of the buffers split at " + split);
+		}
+		
+		// A parser is reset to another slice, sequence, or buffers
+		final JsonParser parser = new JsonParser(chars, 2, 12);
+		parser.parseObject();
+		check(parser.reset(chars, 14, 3).parseArray().getInt(0) == 3, "Reset a parser to a slice of chars");
+		check(parser.reset(records).parseArray().toString().equals(expected), "Reset a parser to a char sequence");
+		final ByteBuffer first = ByteBuffer.wrap(json, 0, 10);
+		final ByteBuffer second = ByteBuffer.wrap(json, 10, json.length - 10);
+		check(parser.reset(new ByteBuffer[] {first, second}).parseObject().getLong("number") == 1234567890123L, "Reset a parser to buffers");
+		check(first.position() == 0 && second.position() == 10, "Keep the positions of the buffers of a reset parser");
+		System.out.println("Sources: OK");
+	}
+	
+	public static void testParallel() {
+		// Boundaries are speculated inside strings and nested arrays, which are parsed again from the true boundaries
+		final StringBuilder json = new StringBuilder("[ ");
+		for (int i = 0; i < 3000; i++) {
+			json.append(i == 0 ? "" : i % 7 == 0 ? " ,\n " : ",");
+			switch (i % 4) {
+				case 0: json.append("{\"id\":").append(i).append(",\"text\":\"},{\\\"],[\"}"); break;
+				case 1: json.append("[[").append(i).append("],[{\"a\":[]}],[\"},[\"]]"); break;
+				case 2: json.append("{\"nested\":[{\"id\":").append(i).append("},{\"id\":[1]}]}"); break;
+				default: json.append("[]");
+			}
+		}
+		final String source = json.append(" ]\n").toString();
+		final JsonArray expected = new JsonParser(source).parseArray();
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int chunkSize : new int[] {1, 7, 64, 4096, ParallelJsonParser.DEFAULT_CHUNK_SIZE}) {
+				final JsonArray array = new ParallelJsonParser(source.getBytes(StandardCharsets.UTF_8)).setPool(pool).setChunkSize(chunkSize).parseArray();
+				check(array.equals(expected) && array.toString().equals(expected.toString()), "Parse in parallel with chunks of " + chunkSize);
+			}
+			check(new ParallelJsonParser(" [ ] ".getBytes(StandardCharsets.UTF_8)).setPool(pool).parseArray().isEmpty(), "Parse an empty array");
+			
+			final byte[] invalid = source.replace("{\"id\":2000,", "{\"id\":2000,,").getBytes(StandardCharsets.UTF_8);
+			try {
+				new ParallelJsonParser(invalid).setPool(pool).setChunkSize(64).parseArray();
+				check(false, "Throw syntax errors in a chunk");
+			} catch (JsonException e) {
+				// Expected
+			}
+		} finally {
+			pool.shutdown();
+		}
+		System.out.println("Parallel: OK");
+	}
+	
+	public static void testValidator() {
+		// Strings and white spaces longer than a word, with the events at every position of a word
+		final StringBuilder json = new StringBuilder("{\n");
+		for (int i = 0; i < 24; i++) {
+			json.append(i == 0 ? "" : ",\n").append("                ".substring(i % 16)).append("\"key").append(i).append("\": ");
+			json.append("\"").append("abcdefghijklmnopqrstuvwxyz".substring(0, i)).append(i % 3 == 0 ? "\\\"\\u00e9" : i % 3 == 1 ? "\u00e9\u4e2d\ud83d\ude00" : "").append("tail\"");
+		}
+		final String valid = json.append("\n}").toString();
+		check(new JsonParser(valid).parseObject().size() == 24, "Parse the validated json");
+		checkValidation(valid, -1);
+		
+		checkValidation("\"" + "abcdefghijklm" + "\u0001" + "nop\"", 14);
+		checkValidation("\"" + "abcdefghijklm" + "\\x" + "nop\"", 14);
+		checkValidation("[\"abcdefghijklmnop\",             truth]", 36);
+		checkValidation("[\"abcdefghijklmnop\"            \n  ", 34);
+		final byte[] overlong = "[\"abcdefghij\u00e9klmnop\"]".getBytes(StandardCharsets.UTF_8);
+		overlong[12] = (byte) 0xC0;
+		check(Javason.validate(overlong).getOffset() == 12, "Validate an overlong sequence");
+		
+		check(Javason.validate("[[[]]]", 3).isValid() && !Javason.validate("[[[]]]", 2).isValid(), "Validate the maximum depth");
+		check(Javason.validate("[[[]]]".getBytes(StandardCharsets.UTF_8), 2).getMessage().contains("maximum depth of 2"), "Validate the maximum depth of bytes");
+		try {
+			Javason.validate("[]", 0);
+			check(false, "Reject a maximum depth of 0");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		System.out.println("Validator: OK");
+	}
+	
+	// Validate the chars, the bytes, a range of the bytes, and a direct buffer, which have the same offset of the error, or -1
+	private static void checkValidation(String json, long offset) {
+		final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		final byte[] padded = new byte[bytes.length + 10];
+		System.arraycopy(bytes, 0, padded, 5, bytes.length);
+		final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 3);
+		direct.position(3);
+		direct.put(bytes).position(3);
+		
+		final ValidationResult[] results = {Javason.validate(json), Javason.validate(bytes), Javason.validate(padded, 5, bytes.length),
+				Javason.validate(ByteBuffer.wrap(padded, 5, bytes.length)), Javason.validate(direct)};
+		for (ValidationResult result : results) {
+			check(offset < 0 ? result.isValid() : !result.isValid() && result.getOffset() == offset, "Validate " + json + ": " + result);
+		}
+		check(direct.position() == 3, "Keep the position of the buffer");
+	}
+	
+	public static void testFeed() {
+		// The objects of a root array, fed in chunks which split the tokens
+		final byte[] json = " [{\"x\":1}, {\"x\":2,\"y\":[{}]}] ".getBytes(StandardCharsets.UTF_8);
+		for (int chunk = 1; chunk <= json.length; chunk++) {
+			final JsonFeedParser parser = new JsonFeedParser();
+			final List<JsonObject> objects = new ArrayList<>();
+			for (int i = 0; i < json.length; i += chunk) {
+				parser.feed(ByteBuffer.wrap(json, i, Math.min(chunk, json.length - i)));
+				if (i + chunk >= json.length) parser.endOfInput();
+				JsonObject object;
+				while ((object = parser.nextObject()) != null) {
+					objects.add(object);
+				}
+			}
+			check(objects.size() == 2 && objects.get(0).getInt("x") == 1 && objects.get(1).getArray("y").size() == 1,
+					"Read the objects of a root array in chunks of " + chunk);
+			parser.close();
+		}
+		
+		try (JsonFeedParser root = new JsonFeedParser()) {
+			root.feed(ByteBuffer.wrap("{\"x\":1}".getBytes(StandardCharsets.UTF_8))).endOfInput();
+			check(root.nextObject().getInt("x") == 1 && root.nextObject() == null, "Read a root object");
+			root.close();
+			root.feed(ByteBuffer.wrap(new byte[1]));
+			check(false, "Reject a chunk after closing");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		try {
+			new JsonFeedParser().feed(ByteBuffer.wrap("[[]]".getBytes(StandardCharsets.UTF_8))).nextObject();
+			check(false, "Throw for an array in a root array");
+		} catch (JsonException e) {
+			// Expected
+		}
+		System.out.println("Feed: OK");
+	}
+	
+	public static void testSymbols() throws Exception {
+		final String json = "[{\"key\":1},{\"key\":2}]";
+		final JsonArray interned = new JsonParser(json).parseArray();
+		check(key(interned, 0) == key(interned, 1), "Intern the keys by default");
+		
+		final JsonTokenizer tokenizer = new JsonTokenizer(json);
+		tokenizer.setSymbolTable(null);
+		final JsonArray array = new JsonParser(tokenizer).parseArray();
+		check(tokenizer.getSymbolTable() == null && key(array, 0) != key(array, 1), "Keep the null symbol table of a tokenizer");
+		
+		// A shared table full of keys which are never repeated, such as ids, is replaced
+		final JsonParser ids = new JsonParser(records(1, 3000, "id"));
+		final SymbolTable stale = ids.getSymbolTable();
+		ids.parseArray();
+		check(stale.size() == stale.getMaxSize(), "Fill the shared symbol table");
+		final SymbolTable replaced = new JsonParser(json).getSymbolTable();
+		check(replaced != stale && replaced.size() < replaced.getMaxSize(), "Replace a stale shared symbol table");
+		final JsonArray fresh = new JsonParser(json).parseArray();
+		check(key(fresh, 0) == key(fresh, 1), "Intern the keys after replacing a stale symbol table");
+		
+		// A full table whose keys are mostly repeated is kept
+		final JsonParser repeated = new JsonParser(records(30, 1100, "key"));
+		final SymbolTable kept = repeated.getSymbolTable();
+		repeated.parseArray();
+		check(kept.size() == kept.getMaxSize() && new JsonParser(json).getSymbolTable() == kept, "Keep a full symbol table with repeated keys");
+		
+		// A parser is reused by resetting it, also after it is closed
+		final JsonParser parser = new JsonParser(json);
+		final SymbolTable table = parser.getSymbolTable();
+		final JsonArray first = parser.parseArray();
+		final JsonArray second = parser.reset("[{\"key\":3},{\"other\":4}]").parseArray();
+		check(second.getObject(0).getInt("key") == 3 && second.getObject(1).getInt("other") == 4, "Parse the json of a reset parser");
+		check(key(second, 0) == key(first, 0), "Intern the keys of a reset parser by the same table");
+		parser.close();
+		final JsonArray bytes = parser.reset(json.getBytes(StandardCharsets.UTF_8)).parseArray();
+		check(bytes.getObject(1).getInt("key") == 2 && key(bytes, 0) == key(first, 0), "Parse the bytes of a closed and reset parser");
+		final JsonObject object = parser.reset("{\"key\":[5]}").parseObject();
+		check(object.getArray("key").getInt(0) == 5 && parser.getSymbolTable() == table, "Keep the symbol table of a reset parser");
+		parser.close();
+		System.out.println("Symbols: OK");
+	}
+	
+	private static String key(JsonArray array, int index) {
+		return array.getObject(index).getAsMap().keySet().iterator().next();
+	}
+	
+	// An array of objects, each with the same keys
+	private static String records(int count, int keys, String prefix) {
+		final StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			json.append(i == 0 ? "{" : ",{");
+			for (int k = 0; k < keys; k++) {
+				json.append(k == 0 ? "\"" : ",\"").append(prefix).append(k).append("\":").append(k);
+			}
+			json.append('}');
+		}
+		return json.append(']').toString();
+	}
+	
+	public static void testPath() throws Exception {
+		final String json = "{\"skip\":{\"deep\":[[{\"id\":0}],\"]}\"]},\"user\":{\"name\":\"a\",\"id\":7},"
+				+ "\"items\":[{\"price\":1.5,\"tags\":[\"x\"]},{\"price\":2,\"name\":\"b\"},{\"name\":\"c\"}],\"quoted\":{\"k\":[1]}}";
+		final JsonPathExtractor extractor = new JsonPathExtractor("$.user.id", "$.items[*].price", "$['quoted']", "$.items[1]", "$.none[0]");
+		checkPath(extractor, json, "$.user.id=7", "$.items[*].price=1.5", "$.items[*].price=2",
+				"$.items[1]={\"price\":2,\"name\":\"b\"}", "$['quoted']={\"k\":[1]}");
+		// Matching in the built root
+		checkPath(new JsonPathExtractor("$", "$.items[*].price", "$.user.*"), json, "$=" + new JsonParser(json).parseObject(),
+				"$.items[*].price=1.5", "$.items[*].price=2", "$.user.*=a", "$.user.*=7");
+		
+		// Deeper than the initial levels, and siblings which reuse the levels
+		String nested = "5";
+		for (int i = 0; i < 40; i++) {
+			nested = (i % 2 == 0 ? "{\"b\":[0],\"a\":" : "[[0],") + nested + (i % 2 == 0 ? ",\"c\":[2]}" : ",[2]]");
+		}
+		final StringBuilder deep = new StringBuilder("$");
+		for (int i = 39; i >= 0; i--) {
+			deep.append(i % 2 == 0 ? ".a" : "[1]");
+		}
+		checkPath(new JsonPathExtractor(deep.toString()), nested, deep + "=5");
+		
+		// A skipped value deeper than the levels which are skipped by the index
+		final String deepSkip = "{\"skip\":" + String.join("", Collections.nCopies(100, "[{\"a\":")) + "1"
+				+ String.join("", Collections.nCopies(100, "}]")) + ",\"user\":{\"id\":7}}";
+		checkPath(extractor, deepSkip, "$.user.id=7");
+		
+		// Syntax errors in a skipped value
+		for (String invalid : new String[] {"{\"skip\":{\"a\":[1,2}},\"user\":{\"id\":7}}", "{\"skip\":[[1]],\"user\":{\"id\":7}"}) {
+			for (int source = 0; source < 3; source++) {
+				try {
+					extract(extractor, invalid, source);
+					check(false, "Throw syntax errors in a skipped value: " + invalid);
+				} catch (JsonException e) {
+					// Expected
+				}
+			}
+		}
+		try {
+			new JsonPathExtractor("$.a[x]");
+			check(false, "Reject an invalid path");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		System.out.println("Path: OK");
+	}
+	
+	// Extract from the string, the bytes, and the bytes which are indexed for skipping
+	private static void checkPath(JsonPathExtractor extractor, String json, String... expected) throws Exception {
+		for (int source = 0; source < 3; source++) {
+			final List<String> matches = extract(extractor, json, source);
+			check(matches.equals(Arrays.asList(expected)), "Extract " + Arrays.toString(extractor.getPaths()) + " from the source " + source + ": " + matches);
+		}
+	}
+	
+	private static List<String> extract(JsonPathExtractor extractor, String json, int source) throws Exception {
+		final List<String> matches = new ArrayList<>();
+		final JsonPathExtractor.MatchHandler handler = (path, value) -> matches.add(path + "=" + value);
+		if (source == 0) {
+			extractor.extract(json, handler);
+		} else if (source == 1) {
+			extractor.extract(json.getBytes(StandardCharsets.UTF_8), handler);
+		} else {
+			final Method readFully = JsonTokenizer.class.getDeclaredMethod("readFully");
+			readFully.setAccessible(true);
+			try (JsonTokenizer tokenizer = new JsonTokenizer(json.getBytes(StandardCharsets.UTF_8))) {
+				readFully.invoke(tokenizer);
+				extractor.extract(tokenizer, handler);
+			}
+		}
+		return matches;
+	}
+	
+	public static void testDocuments() throws Exception {
+		final Path path = Files.createTempFile("javason", ".json");
+		try {
+			// Checkpoints are in bytes, after values with multi-byte UTF-8 chars
+			final String first = "{\"a\":\"\u00e9\ud83d\ude00\"}";
+			final String second = " [1,\"\u00fc\"]";
+			Files.write(path, (first + second + "{\"b\":2}\n").getBytes(StandardCharsets.UTF_8));
+			final long checkpoint;
+			try (FileChannel channel = FileChannel.open(path); JsonDocumentReader reader = new JsonDocumentReader(channel)) {
+				check(((JsonObject) reader.next()).getString("a").equals("\u00e9\ud83d\ude00"), "Read the first value");
+				checkpoint = reader.getCheckpoint();
+				check(checkpoint == first.getBytes(StandardCharsets.UTF_8).length, "Checkpoint after the first value: " + checkpoint);
+			}
+			try (FileChannel channel = FileChannel.open(path); JsonDocumentReader reader = new JsonDocumentReader(channel, checkpoint)) {
+				check(((JsonArray) reader.next()).getString(1).equals("\u00fc"), "Resume from the checkpoint");
+				check(reader.getCheckpoint() == (first + second).getBytes(StandardCharsets.UTF_8).length, "Checkpoint after the resumed value");
+				check(((JsonObject) reader.next()).getInt("b") == 2 && !reader.hasNext(), "Read to the end");
+			}
+			
+			// Values appended to a tailed file
+			final FileChannel channel = FileChannel.open(path);
+			final JsonDocumentReader reader = new JsonDocumentReader(channel).setTail(true, 10);
+			for (int i = 0; i < 3; i++) reader.next();
+			final Thread writer = new Thread(() -> {
+				try {
+					Thread.sleep(50);
+					Files.write(path, "{\"c\":".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+					Thread.sleep(50);
+					Files.write(path, "3}".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+					Thread.sleep(100);
+					reader.close(); // Stops waiting for the next value
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			});
+			writer.start();
+			check(reader.hasNext() && ((JsonObject) reader.next()).getInt("c") == 3, "Read a value appended in two parts");
+			check(!reader.hasNext(), "Stop waiting when closed");
+			writer.join();
+			check(!channel.isOpen(), "Close the channel");
+		} finally {
+			Files.delete(path);
+		}
+		System.out.println("Documents: OK");
+	}
+	
+	private static void checkFrozen(Runnable mutation) {
+		try {
+			mutation.run();
+			check(false, "Modify a frozen value");
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+	}
+	
+	// Parsers of the chars and of the UTF-8 bytes
+	private static JsonParser[] parsers(String json) {
+		return new JsonParser[] {new JsonParser(json), new JsonParser(json.getBytes(StandardCharsets.UTF_8))};
+	}
+	
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+	
 	static class Example {
 		private String key;
 		public boolean key2;